@@ -0,0 +1,76 @@
+package com.taumaturgo.application.events;
+
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.benchmarks.Fixtures;
+import com.taumaturgo.domain.models.ProcessingStatus;
+import io.smallrye.mutiny.subscription.Cancellable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One status update delivered to every open stream of a customer, the way SSE and gRPC clients watching the same
+ * account receive it. Subscribers request everything up front, so each publish drains straight through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventFanOutBenchmark {
+
+    @Param({"1", "16", "256"})
+    int subscribers;
+
+    private final LongAdder delivered = new LongAdder();
+    private final List<Cancellable> subscriptions = new ArrayList<>();
+    private ProfilePhotoJobEvents events;
+    private ProfilePhotoJobStatus status;
+
+    @Setup(Level.Trial)
+    public void subscribe() {
+        events = new ProfilePhotoJobEvents();
+        var done = Fixtures.doneStatus("customer-42");
+        // not terminal, so the job's terminal waiters stay out of the measurement
+        status = new ProfilePhotoJobStatus(done.jobId(),
+                                           done.customerId(),
+                                           ProcessingStatus.PROCESSING,
+                                           done.originalPhotoUrl(),
+                                           null,
+                                           null,
+                                           null,
+                                           done.createdAt(),
+                                           done.updatedAt());
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions.add(events.streamByCustomer(status.customerId())
+                                    .subscribe()
+                                    .with(item -> delivered.increment()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cancel() {
+        subscriptions.forEach(Cancellable::cancel);
+    }
+
+    @Benchmark
+    public void publish() {
+        events.publish(status);
+    }
+}
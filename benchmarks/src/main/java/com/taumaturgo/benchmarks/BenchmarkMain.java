@@ -0,0 +1,27 @@
+package com.taumaturgo.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link Main} that writes results to {@code jmh-result.json} unless {@code -rf} or {@code -rff} are given, so every
+ * run leaves a file that can be compared against the previous one.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var arguments = new ArrayList<>(List.of(args));
+        if (!arguments.contains("-rf")) {
+            arguments.addAll(List.of("-rf", "json"));
+        }
+        if (!arguments.contains("-rff")) {
+            arguments.addAll(List.of("-rff", "jmh-result.json"));
+        }
+        Main.main(arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,64 @@
+package com.taumaturgo.benchmarks;
+
+import com.taumaturgo.infrastructure.async.ExecutionMode;
+import io.smallrye.mutiny.Uni;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thousands of jobs parked on {@code await().indefinitely()} at once, the way the processor waits on Stable
+ * Diffusion and S3. Each waiter blocks for {@code waitMillis}, so the score is how far above that the batch of
+ * waiters takes to drain, and how much thread creation it costs. Run with Java 21 to include {@code VIRTUAL}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xss512k")
+public class ExecutionModeBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    ExecutionMode mode;
+
+    @Param({"1000", "5000"})
+    int waiters;
+
+    @Param({"50"})
+    long waitMillis;
+
+    @Benchmark
+    public void blockingWaiters() throws InterruptedException {
+        var workers = mode.newWorkerPool(waiters);
+        try {
+            var done = new CountDownLatch(waiters);
+            for (int i = 0; i < waiters; i++) {
+                workers.execute(() -> {
+                    Uni.createFrom()
+                       .item(Boolean.TRUE)
+                       .onItem()
+                       .delayIt()
+                       .by(Duration.ofMillis(waitMillis))
+                       .await()
+                       .indefinitely();
+                    done.countDown();
+                });
+            }
+            done.await();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+}
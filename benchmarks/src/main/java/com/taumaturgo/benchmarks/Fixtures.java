@@ -0,0 +1,46 @@
+package com.taumaturgo.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.domain.models.ProcessingStatus;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+public final class Fixtures {
+    private static final Instant CREATED_AT = Instant.parse("2024-05-01T12:00:00.123456Z");
+
+    private Fixtures() {
+    }
+
+    // Configured the way Quarkus configures the injected ObjectMapper.
+    public static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                         .findAndAddModules()
+                         .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                         .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                         .build();
+    }
+
+    // A finished job with the default two variants, the largest status the service publishes.
+    public static ProfilePhotoJobStatus doneStatus(String customerId) {
+        var jobId = UUID.randomUUID().toString();
+        var photoUrl = "https://avatarforge.s3.amazonaws.com/%s/%s".formatted(customerId, jobId);
+        var variants = new LinkedHashMap<String, String>();
+        variants.put("jpeg-64", photoUrl + "-stable-diffusion-jpeg-64");
+        variants.put("jpeg-256", photoUrl + "-stable-diffusion-jpeg-256");
+        return new ProfilePhotoJobStatus(jobId,
+                                         customerId,
+                                         ProcessingStatus.DONE,
+                                         photoUrl + "-original",
+                                         photoUrl + "-stable-diffusion",
+                                         variants,
+                                         null,
+                                         CREATED_AT,
+                                         CREATED_AT.plusSeconds(14));
+    }
+}
@@ -0,0 +1,89 @@
+package com.taumaturgo.benchmarks;
+
+import com.taumaturgo.infrastructure.imaging.ImageNormalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The resize path on phone-sized JPEGs. {@code normalize} is what the service runs; {@code fullDecode} is the
+ * naive baseline that decodes every pixel and scales in one nearest-neighbour step. JPEG decoding dominates both,
+ * so the decode-time crop and subsampling are what pay for the filtered halving passes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageNormalizerBenchmark {
+
+    @Param({"1920x1080", "4032x3024"})
+    String sourceSize;
+
+    @Param({"512"})
+    int outputSize;
+
+    private Path source;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void writeSource() throws IOException {
+        var dimensions = sourceSize.split("x");
+        var image = new BufferedImage(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]), BufferedImage.TYPE_INT_RGB);
+        // noise over a gradient, so the encoder cannot collapse it the way it would a flat fill
+        var random = new SplittableRandom(42);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                var base = (x * 255 / image.getWidth()) << 16 | (y * 255 / image.getHeight()) << 8;
+                image.setRGB(x, y, base | random.nextInt(256));
+            }
+        }
+        source = Files.createTempFile("benchmark-source", ".jpg");
+        target = Files.createTempFile("benchmark-target", ".jpg");
+        ImageIO.write(image, "jpeg", source.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public Path normalize() throws IOException {
+        ImageNormalizer.normalize(source, target, outputSize, outputSize);
+        return target;
+    }
+
+    @Benchmark
+    public BufferedImage fullDecode() throws IOException {
+        var decoded = ImageIO.read(source.toFile());
+        var side = Math.min(decoded.getWidth(), decoded.getHeight());
+        var cropped = decoded.getSubimage((decoded.getWidth() - side) / 2, (decoded.getHeight() - side) / 2, side, side);
+        var scaled = new BufferedImage(outputSize, outputSize, BufferedImage.TYPE_INT_RGB);
+        var graphics = scaled.createGraphics();
+        graphics.drawImage(cropped, 0, 0, outputSize, outputSize, null);
+        graphics.dispose();
+        ImageIO.write(scaled, "jpeg", target.toFile());
+        return scaled;
+    }
+}
@@ -0,0 +1,55 @@
+package com.taumaturgo.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.infrastructure.rest.client.StableDiffusion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON written for every status read, SSE event and webhook, and the Stable Diffusion parameters the generation
+ * cache serializes into its key for every job. The init image is left out here; {@code StableDiffusionCodecBenchmark}
+ * covers the request body with it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobStatusSerializationBenchmark {
+
+    private ObjectMapper mapper;
+    private ProfilePhotoJobStatus status;
+    private StableDiffusion.Request parameters;
+
+    @Setup
+    public void setup() {
+        mapper = Fixtures.objectMapper();
+        status = Fixtures.doneStatus("customer-42");
+        parameters = new StableDiffusion.Request(Path.of("unused")).withInitImages(List.of());
+    }
+
+    @Benchmark
+    public String jobStatus() throws JsonProcessingException {
+        return mapper.writeValueAsString(status);
+    }
+
+    @Benchmark
+    public String stableDiffusionParameters() throws JsonProcessingException {
+        return mapper.writeValueAsString(parameters);
+    }
+}
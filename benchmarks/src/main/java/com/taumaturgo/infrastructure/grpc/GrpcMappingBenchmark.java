@@ -0,0 +1,49 @@
+package com.taumaturgo.infrastructure.grpc;
+
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.benchmarks.Fixtures;
+import com.taumaturgo.grpc.JobStatusResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mapping every gRPC status read and stream update goes through, alone and with the protobuf encoding that
+ * follows it on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrpcMappingBenchmark {
+
+    private ProfilePhotoJobGrpcService service;
+    private ProfilePhotoJobStatus status;
+
+    @Setup
+    public void setup() {
+        service = new ProfilePhotoJobGrpcService(null, null);
+        status = Fixtures.doneStatus("customer-42");
+    }
+
+    @Benchmark
+    public JobStatusResponse toProto() {
+        return service.toProto(status);
+    }
+
+    @Benchmark
+    public byte[] toProtoBytes() {
+        return service.toProto(status).toByteArray();
+    }
+}
@@ -0,0 +1,62 @@
+package com.taumaturgo.infrastructure.repositories;
+
+import com.taumaturgo.domain.models.Customer;
+import com.taumaturgo.infrastructure.repositories.entities.CustomerProfilePhotoRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folding the ordered join rows of a customer page back into customers. The rows are built up front, so the score
+ * is the regrouping alone, without Hibernate or the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerGroupingBenchmark {
+
+    @Param({"100", "1000"})
+    int customers;
+
+    @Param({"1", "10"})
+    int photosPerCustomer;
+
+    private List<CustomerProfilePhotoRow> rows;
+
+    @Setup
+    public void setup() {
+        rows = new ArrayList<>(customers * photosPerCustomer);
+        for (int customer = 0; customer < customers; customer++) {
+            var customerId = "customer-%06d".formatted(customer);
+            for (int photo = 0; photo < photosPerCustomer; photo++) {
+                var url = "https://avatarforge.s3.amazonaws.com/%s/photo-%03d".formatted(customerId, photo);
+                rows.add(new CustomerProfilePhotoRow(customerId,
+                                                     "photo-%03d".formatted(photo),
+                                                     url + "-original",
+                                                     url + "-stable-diffusion",
+                                                     Map.of("jpeg-64", url + "-stable-diffusion-jpeg-64")));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Customer> groupByCustomer() {
+        return HibernateCustomerRepository.groupByCustomer(rows.stream()).toList();
+    }
+}
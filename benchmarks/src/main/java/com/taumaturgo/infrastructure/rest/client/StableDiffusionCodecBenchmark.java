@@ -0,0 +1,112 @@
+package com.taumaturgo.infrastructure.rest.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taumaturgo.benchmarks.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Base64 legs of an img2img call: streaming the init image into the request body, and decoding the generated
+ * image from the response into a temp file. Sizes go from a 512px PNG to a phone upload that skipped normalization;
+ * the bytes are random, which costs Base64 the same as a real image.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StableDiffusionCodecBenchmark {
+
+    @Param({"262144", "1048576", "4194304"})
+    int imageBytes;
+
+    private ObjectMapper mapper;
+    private HttpStableDiffusion stableDiffusion;
+    private Path initImage;
+    private StableDiffusion.Request request;
+    private byte[] response;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        mapper = Fixtures.objectMapper();
+        stableDiffusion = new HttpStableDiffusion(null, mapper, URI.create("http://localhost"), Duration.ofMinutes(1), Runnable::run);
+        var image = new byte[imageBytes];
+        new SplittableRandom(42).nextBytes(image);
+        initImage = Files.createTempFile("benchmark-init-image", ".png");
+        Files.write(initImage, image);
+        request = new StableDiffusion.Request(initImage);
+        response = """
+                   {"images":["%s"],"parameters":{},"info":"{}"}""".formatted(Base64.getEncoder().encodeToString(image))
+                                                                 .getBytes();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteInitImage() throws IOException {
+        Files.deleteIfExists(initImage);
+    }
+
+    // Drains the body the HTTP client would send, with unbounded demand.
+    @Benchmark
+    public long encodeRequest() throws Exception {
+        var size = new CompletableFuture<Long>();
+        JsonBodyPublishers.ofImg2img(mapper, request).subscribe(new Flow.Subscriber<>() {
+            private long bytes;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                bytes += item.remaining();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                size.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                size.complete(bytes);
+            }
+        });
+        return size.get();
+    }
+
+    @Benchmark
+    public long decodeResponse() throws IOException {
+        var size = 0L;
+        for (var image : stableDiffusion.decodeImages(new ByteArrayInputStream(response))) {
+            size += Files.size(image);
+            Files.delete(image);
+        }
+        return size;
+    }
+}
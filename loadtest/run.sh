@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Runs the packaged service against the Stable Diffusion and S3 stand-ins, then drives it.
+# Needs a MariaDB with the schema from src/main/resources/db/migration/init.sql, and both jars built:
+#   ./mvnw package -DskipTests && ./mvnw install -DskipTests && (cd loadtest && ../mvnw package)
+# Extra arguments go to the driver, e.g. ./run.sh --jobs=1000 --concurrency=32 --follow=grpc
+set -euo pipefail
+cd "$(dirname "$0")"
+
+LOADTEST_JAR=target/loadtest.jar
+SERVICE_JAR=../target/quarkus-app/quarkus-run.jar
+DB_URL=${DB_URL:-jdbc:mariadb://localhost:3306/customers}
+DB_USER=${DB_USER:-quarkus}
+DB_PASSWORD=${DB_PASSWORD:-quarkus}
+SD_ARGS=${SD_ARGS:-}
+S3_ARGS=${S3_ARGS:-}
+SERVICE_OPTS=${SERVICE_OPTS:--Xmx1g}
+
+pids=()
+trap 'kill "${pids[@]}" 2>/dev/null || true' EXIT
+
+java -jar "$LOADTEST_JAR" stable-diffusion $SD_ARGS > target/stable-diffusion.log 2>&1 &
+pids+=($!)
+java -jar "$LOADTEST_JAR" s3 $S3_ARGS > target/s3.log 2>&1 &
+pids+=($!)
+java $SERVICE_OPTS \
+     -Dquarkus.datasource.jdbc.url="$DB_URL" \
+     -Dquarkus.datasource.username="$DB_USER" \
+     -Dquarkus.datasource.password="$DB_PASSWORD" \
+     -Dquarkus.hibernate-orm.log.sql=false \
+     -Dquarkus.s3.endpoint-override=http://localhost:4566 \
+     -Davatarforge.stable-diffusion.urls=http://localhost:7860 \
+     -jar "$SERVICE_JAR" > target/service.log 2>&1 &
+pids+=($!)
+
+for _ in $(seq 1 60); do
+  curl -sf -o /dev/null http://localhost:8080/q/metrics && break
+  sleep 1
+done
+curl -sf -o /dev/null http://localhost:8080/q/metrics || { echo "service did not start, see target/service.log" >&2; exit 1; }
+
+java -jar "$LOADTEST_JAR" drive "$@"
@@ -0,0 +1,222 @@
+package com.taumaturgo.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Submits {@code jobs} uploads through {@code POST /customers/{id}}, keeping at most {@code concurrency} jobs
+ * unfinished, and waits for each one's terminal status on the SSE or gRPC stream of its customer. Customers get
+ * fresh ids every run, so leftovers from earlier runs never show up in the streams.
+ */
+final class Driver {
+    private static final String BOUNDARY = "loadtest-boundary";
+
+    private final URI baseUri;
+    private final String grpcTarget;
+    private final URI metricsUri;
+    private final int customerCount;
+    private final int jobs;
+    private final int concurrency;
+    private final String follow;
+    private final Duration jobTimeout;
+    private final Duration settle;
+    private final Path reportFile;
+    private final byte[] uploadHead;
+    private final byte[] photo;
+    private final byte[] uploadTail;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                                                          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                                                          .enable(SerializationFeature.INDENT_OUTPUT);
+    private final JobTracker tracker = new JobTracker();
+
+    private final Map<Integer, Long> submitResponses = new ConcurrentHashMap<>();
+    private final Queue<Long> submitLatencies = new ConcurrentLinkedQueue<>();
+    private final Map<String, Queue<Long>> endToEndLatencies = new ConcurrentHashMap<>();
+    private final LongAdder done = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong lastFinished = new AtomicLong();
+
+    Driver(Options options) throws IOException {
+        baseUri = URI.create(options.string("url", "http://localhost:8080"));
+        grpcTarget = options.string("grpc", "localhost:9000");
+        metricsUri = URI.create(options.string("metrics-url", baseUri.resolve("/q/metrics").toString()));
+        customerCount = options.integer("customers", 16);
+        jobs = options.integer("jobs", 200);
+        concurrency = options.integer("concurrency", 8);
+        follow = options.string("follow", "both");
+        jobTimeout = options.duration("job-timeout", Duration.ofMinutes(5));
+        settle = options.duration("settle", Duration.ofSeconds(1));
+        reportFile = Path.of(options.string("report", "loadtest-result.json"));
+        var uploadSize = options.integer("upload-size", 1024);
+        options.requireAllRead();
+        if (!List.of("sse", "grpc", "both").contains(follow)) {
+            throw new IllegalArgumentException("--follow must be sse, grpc or both");
+        }
+
+        photo = TestImages.encode(uploadSize, "jpeg", 11);
+        uploadHead = ("--%s\r\nContent-Disposition: form-data; name=\"photo\"; filename=\"photo.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").formatted(BOUNDARY).getBytes(StandardCharsets.UTF_8);
+        uploadTail = "\r\n--%s--\r\n".formatted(BOUNDARY).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // False when a job never finished or a request failed outright; FAILED jobs are a result, not an error.
+    boolean run() throws Exception {
+        var runId = Long.toString(System.currentTimeMillis(), 36);
+        var customers = IntStream.range(0, customerCount).mapToObj(i -> "loadtest-%s-%03d".formatted(runId, i)).toList();
+        var sampler = new HeapSampler(http, metricsUri);
+        ExecutorService readers = Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "sse-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ManagedChannel channel = follow.equals("sse") ? null : ManagedChannelBuilder.forTarget(grpcTarget).usePlaintext().build();
+        long started;
+        try {
+            var connected = new ArrayList<CompletableFuture<Void>>();
+            for (int i = 0; i < customers.size(); i++) {
+                if (follower(i).equals("sse")) {
+                    connected.add(SseFollower.follow(http, baseUri, customers.get(i), mapper, tracker, readers));
+                } else {
+                    GrpcFollower.follow(channel, customers.get(i), tracker);
+                }
+            }
+            CompletableFuture.allOf(connected.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+            if (channel != null) {
+                Thread.sleep(settle.toMillis());
+            }
+
+            sampler.start();
+            started = System.nanoTime();
+            var permits = new Semaphore(concurrency);
+            for (int i = 0; i < jobs; i++) {
+                permits.acquire();
+                var customer = i % customers.size();
+                submit(customers.get(customer), follower(customer)).whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        errors.increment();
+                        System.err.println("Upload failed: " + failure);
+                    }
+                    permits.release();
+                });
+            }
+            permits.acquire(concurrency);
+        } finally {
+            sampler.stop();
+            readers.shutdownNow();
+            if (channel != null) {
+                channel.shutdownNow();
+            }
+        }
+
+        var report = report(started, sampler);
+        report.print(System.out);
+        mapper.writeValue(reportFile.toFile(), report);
+        System.out.println("report written to " + reportFile.toAbsolutePath());
+        return report.timedOut() == 0 && report.errors() == 0;
+    }
+
+    private String follower(int customer) {
+        return follow.equals("both") ? (customer % 2 == 0 ? "sse" : "grpc") : follow;
+    }
+
+    private CompletableFuture<Void> submit(String customerId, String follower) {
+        var started = System.nanoTime();
+        var request = HttpRequest.newBuilder(baseUri.resolve("/customers/" + customerId))
+                                 .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                                 .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(uploadHead, photo, uploadTail)))
+                                 .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                   .thenCompose(response -> {
+                       submitLatencies.add(System.nanoTime() - started);
+                       submitResponses.merge(response.statusCode(), 1L, Long::sum);
+                       if (response.statusCode() == 429) {
+                           return backOff(response);
+                       }
+                       if (response.statusCode() != 202) {
+                           return CompletableFuture.completedFuture(null);
+                       }
+                       return tracker.await(jobId(response.body()))
+                                     .orTimeout(jobTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                                     .handle((finished, failure) -> {
+                                         if (failure != null) {
+                                             timedOut.increment();
+                                         } else {
+                                             (finished.status().equals("DONE") ? done : failed).increment();
+                                             endToEndLatencies.computeIfAbsent(follower, key -> new ConcurrentLinkedQueue<>())
+                                                              .add(finished.nanos() - started);
+                                             lastFinished.accumulateAndGet(finished.nanos(), Math::max);
+                                         }
+                                         return null;
+                                     });
+                   });
+    }
+
+    // Holds the concurrency slot for Retry-After, the way a well-behaved client would wait before resubmitting.
+    private CompletableFuture<Void> backOff(HttpResponse<?> response) {
+        var seconds = response.headers().firstValueAsLong("Retry-After").orElse(1);
+        var delay = Math.min(TimeUnit.SECONDS.toMillis(seconds), jobTimeout.toMillis());
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private String jobId(String body) {
+        try {
+            return mapper.readTree(body).get("jobId").asText();
+        } catch (IOException exception) {
+            throw new IllegalStateException("Unexpected upload response " + body, exception);
+        }
+    }
+
+    private Report report(long started, HeapSampler sampler) {
+        var finished = done.sum() + failed.sum();
+        var elapsed = (Math.max(lastFinished.get(), started) - started) / 1e9;
+        var endToEnd = new LinkedHashMap<String, Report.Latency>();
+        endToEndLatencies.forEach((follower, latencies) -> endToEnd.put(follower, Report.Latency.ofNanos(latencies)));
+        endToEnd.put("all", Report.Latency.ofNanos(endToEndLatencies.values().stream().flatMap(Queue::stream).toList()));
+        return new Report(jobs,
+                          concurrency,
+                          new TreeMap<>(submitResponses),
+                          done.sum(),
+                          failed.sum(),
+                          timedOut.sum(),
+                          errors.sum(),
+                          elapsed,
+                          elapsed > 0 ? finished / elapsed : 0,
+                          Report.Latency.ofNanos(submitLatencies),
+                          endToEnd,
+                          sampler.serviceMaxBytes() < 0 ? null : sampler.serviceMaxBytes() >> 20,
+                          sampler.serviceLastBytes() < 0 ? null : sampler.serviceLastBytes() >> 20,
+                          sampler.driverMaxBytes() >> 20);
+    }
+}
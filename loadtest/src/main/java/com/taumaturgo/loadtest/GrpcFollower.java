@@ -0,0 +1,34 @@
+package com.taumaturgo.loadtest;
+
+import com.taumaturgo.grpc.JobStatusResponse;
+import com.taumaturgo.grpc.ProfilePhotoJobGrpcGrpc;
+import com.taumaturgo.grpc.StatusStreamRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.stub.StreamObserver;
+
+// StreamStatus for one customer. gRPC gives no signal once the stream is registered, so the driver waits a moment.
+final class GrpcFollower {
+
+    private GrpcFollower() {
+    }
+
+    static void follow(ManagedChannel channel, String customerId, JobTracker tracker) {
+        ProfilePhotoJobGrpcGrpc.newStub(channel)
+                               .streamStatus(StatusStreamRequest.newBuilder().setCustomerId(customerId).build(),
+                                             new StreamObserver<>() {
+                                                 @Override
+                                                 public void onNext(JobStatusResponse response) {
+                                                     tracker.finished(response.getJobId(), response.getStatus().name().replace("STATUS_", ""));
+                                                 }
+
+                                                 @Override
+                                                 public void onError(Throwable throwable) {
+                                                     System.err.printf("gRPC stream of %s failed: %s%n", customerId, throwable);
+                                                 }
+
+                                                 @Override
+                                                 public void onCompleted() {
+                                                 }
+                                             });
+    }
+}
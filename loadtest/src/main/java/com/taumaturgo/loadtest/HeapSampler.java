@@ -0,0 +1,68 @@
+package com.taumaturgo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Reads the service's heap from its Prometheus endpoint; the driver's own heap is sampled alongside for comparison.
+final class HeapSampler {
+    private final HttpClient http;
+    private final URI metricsUri;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "heap-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long serviceMax = -1;
+    private volatile long serviceLast = -1;
+    private volatile long driverMax;
+
+    HeapSampler(HttpClient http, URI metricsUri) {
+        this.http = http;
+        this.metricsUri = metricsUri;
+    }
+
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::sample, 0, 1, TimeUnit.SECONDS);
+    }
+
+    void stop() {
+        scheduler.shutdownNow();
+        sample();
+    }
+
+    long serviceMaxBytes() {
+        return serviceMax;
+    }
+
+    long serviceLastBytes() {
+        return serviceLast;
+    }
+
+    long driverMaxBytes() {
+        return driverMax;
+    }
+
+    private void sample() {
+        var runtime = Runtime.getRuntime();
+        driverMax = Math.max(driverMax, runtime.totalMemory() - runtime.freeMemory());
+        try {
+            var response = http.send(HttpRequest.newBuilder(metricsUri).GET().build(), HttpResponse.BodyHandlers.ofLines());
+            if (response.statusCode() != 200) {
+                return;
+            }
+            var used = response.body()
+                               .filter(line -> line.startsWith("jvm_memory_used_bytes{") && line.contains("area=\"heap\""))
+                               .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                               .sum();
+            serviceLast = (long) used;
+            serviceMax = Math.max(serviceMax, serviceLast);
+        } catch (Exception exception) {
+            // the metrics endpoint is optional; the report says so when no sample was taken
+        }
+    }
+}
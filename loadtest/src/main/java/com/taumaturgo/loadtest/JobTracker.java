@@ -0,0 +1,27 @@
+package com.taumaturgo.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// A terminal event can arrive before the upload response that names the job, so either side may create the entry.
+final class JobTracker {
+    private final Map<String, CompletableFuture<Finished>> jobs = new ConcurrentHashMap<>();
+
+    void finished(String jobId, String status) {
+        if (status.equals("DONE") || status.equals("FAILED")) {
+            entry(jobId).complete(new Finished(status, System.nanoTime()));
+        }
+    }
+
+    CompletableFuture<Finished> await(String jobId) {
+        return entry(jobId).whenComplete((finished, failure) -> jobs.remove(jobId));
+    }
+
+    private CompletableFuture<Finished> entry(String jobId) {
+        return jobs.computeIfAbsent(jobId, id -> new CompletableFuture<>());
+    }
+
+    record Finished(String status, long nanos) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.taumaturgo.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Offline load test for the service: a stand-in for the A1111 API, a stand-in for S3, and a driver that submits
+ * uploads and follows the jobs to completion. Each command runs in its own process, see {@code run.sh}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("usage: java -jar loadtest.jar stable-diffusion|s3|drive [--name=value ...]");
+            System.exit(2);
+        }
+        var options = new Options(Arrays.copyOfRange(args, 1, args.length));
+        switch (args[0]) {
+            case "stable-diffusion" -> StableDiffusionStub.start(options);
+            case "s3" -> S3Stub.start(options);
+            case "drive" -> System.exit(new Driver(options).run() ? 0 : 1);
+            default -> throw new IllegalArgumentException("Unknown command " + args[0]);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.taumaturgo.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// --name=value arguments; anything left unread after a command started is reported as unknown.
+final class Options {
+    private final Map<String, String> values = new HashMap<>();
+    private final Set<String> read = new HashSet<>();
+
+    Options(String[] args) {
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+    }
+
+    String string(String name, String defaultValue) {
+        read.add(name);
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int integer(String name, int defaultValue) {
+        return Integer.parseInt(string(name, Integer.toString(defaultValue)));
+    }
+
+    double decimal(String name, double defaultValue) {
+        return Double.parseDouble(string(name, Double.toString(defaultValue)));
+    }
+
+    Duration duration(String name, Duration defaultValue) {
+        return Duration.parse(string(name, defaultValue.toString()));
+    }
+
+    void requireAllRead() {
+        var unknown = new HashSet<>(values.keySet());
+        unknown.removeAll(read);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + unknown);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.taumaturgo.loadtest;
+
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Map;
+
+record Report(int jobs,
+              int concurrency,
+              Map<Integer, Long> submitResponses,
+              long done,
+              long failed,
+              long timedOut,
+              long errors,
+              double elapsedSeconds,
+              double throughputPerSecond,
+              Latency submit,
+              Map<String, Latency> endToEnd,
+              Long serviceHeapMaxMb,
+              Long serviceHeapLastMb,
+              long driverHeapMaxMb) {
+
+    void print(PrintStream out) {
+        out.printf("jobs %d at concurrency %d, submit responses %s%n", jobs, concurrency, submitResponses);
+        out.printf("done %d, failed %d, timed out %d, errors %d%n", done, failed, timedOut, errors);
+        out.printf("elapsed %.1f s, throughput %.2f jobs/s%n", elapsedSeconds, throughputPerSecond);
+        out.printf("%-16s %8s %10s %10s %10s%n", "latency (ms)", "count", "p50", "p99", "max");
+        out.printf("%-16s %s%n", "submit", submit);
+        endToEnd.forEach((follower, latency) -> out.printf("%-16s %s%n", "end-to-end " + follower, latency));
+        out.printf("heap: service max %s MB, last %s MB; driver max %d MB%n",
+                   serviceHeapMaxMb == null ? "n/a" : serviceHeapMaxMb,
+                   serviceHeapLastMb == null ? "n/a" : serviceHeapLastMb,
+                   driverHeapMaxMb);
+    }
+
+    record Latency(int count, double p50Millis, double p99Millis, double maxMillis) {
+
+        static Latency ofNanos(Collection<Long> nanos) {
+            var sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) {
+                return new Latency(0, 0, 0, 0);
+            }
+            return new Latency(sorted.length, millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)), millis(sorted[sorted.length - 1]));
+        }
+
+        // nearest rank
+        private static long percentile(long[] sorted, double quantile) {
+            return sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return "%8d %10.1f %10.1f %10.1f".formatted(count, p50Millis, p99Millis, maxMillis);
+        }
+    }
+}
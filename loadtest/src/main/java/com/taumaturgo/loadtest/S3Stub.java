@@ -0,0 +1,152 @@
+package com.taumaturgo.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The part of the S3 API the service calls, path-style: PUT, HEAD and GET of objects in any bucket. Objects are
+ * kept as files under {@code dir}; signatures and ACLs are not checked. PUT answers with the MD5 ETag the SDK
+ * validates, and accepts {@code aws-chunked} bodies.
+ */
+final class S3Stub {
+    private final Path root;
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    private S3Stub(Path root) {
+        this.root = root;
+    }
+
+    static void start(Options options) throws IOException {
+        var port = options.integer("port", 4566);
+        var dir = options.string("dir", null);
+        options.requireAllRead();
+
+        var root = dir == null ? Files.createTempDirectory("loadtest-s3") : Files.createDirectories(Path.of(dir));
+        var stub = new S3Stub(root);
+        var server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", stub::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        System.out.printf("s3 stub on :%d, objects under %s%n", port, root);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.printf("s3 stub stored %d objects, %d MB%n",
+                                                                                stub.stored.get(), stub.storedBytes.get() >> 20)));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var object = object(exchange);
+            if (object == null) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> put(exchange, object);
+                case "HEAD" -> exchange.sendResponseHeaders(Files.isRegularFile(object) ? 200 : 404, -1);
+                case "GET" -> get(exchange, object);
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    // /bucket/key, where the key may contain slashes; anything escaping the root is rejected.
+    private Path object(HttpExchange exchange) {
+        var path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8);
+        var object = root.resolve(path.substring(1)).normalize();
+        return object.startsWith(root) && path.indexOf('/', 1) > 0 ? object : null;
+    }
+
+    private void put(HttpExchange exchange, Path object) throws IOException {
+        Files.createDirectories(object.getParent());
+        var md5 = md5();
+        var temp = Files.createTempFile(object.getParent(), ".upload", null);
+        try (var output = new DigestOutputStream(Files.newOutputStream(temp), md5)) {
+            var input = exchange.getRequestBody();
+            if (awsChunked(exchange)) {
+                copyChunks(input, output);
+            } else {
+                input.transferTo(output);
+            }
+        }
+        storedBytes.addAndGet(Files.size(temp));
+        Files.move(temp, object, StandardCopyOption.REPLACE_EXISTING);
+        stored.incrementAndGet();
+        exchange.getResponseHeaders().set("ETag", "\"" + HexFormat.of().formatHex(md5.digest()) + "\"");
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void get(HttpExchange exchange, Path object) throws IOException {
+        if (!Files.isRegularFile(object)) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, Files.size(object));
+        try (var output = exchange.getResponseBody()) {
+            Files.copy(object, output);
+        }
+    }
+
+    private static boolean awsChunked(HttpExchange exchange) {
+        var encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        var contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        return encoding != null && encoding.contains("aws-chunked") || contentSha != null && contentSha.startsWith("STREAMING-");
+    }
+
+    // <hex size>[;chunk-signature=...]\r\n<data>\r\n ... until a zero-sized chunk; trailers are ignored.
+    private static void copyChunks(InputStream input, OutputStream output) throws IOException {
+        while (true) {
+            var header = line(input);
+            var extension = header.indexOf(';');
+            var size = Integer.parseInt((extension < 0 ? header : header.substring(0, extension)).trim(), 16);
+            if (size == 0) {
+                input.transferTo(OutputStream.nullOutputStream());
+                return;
+            }
+            var data = input.readNBytes(size);
+            if (data.length < size) {
+                throw new IOException("Truncated aws-chunked body");
+            }
+            output.write(data);
+            line(input);
+        }
+    }
+
+    private static String line(InputStream input) throws IOException {
+        var line = new ByteArrayOutputStream();
+        int next;
+        while ((next = input.read()) != '\n') {
+            if (next < 0) {
+                throw new IOException("Truncated aws-chunked body");
+            }
+            if (next != '\r') {
+                line.write(next);
+            }
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.taumaturgo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// GET /customers/{id}/photos/stream; every data line is one ProfilePhotoJobStatus.
+final class SseFollower {
+
+    private SseFollower() {
+    }
+
+    // Completes once the stream is open, so uploads sent afterwards cannot miss their events.
+    static CompletableFuture<Void> follow(HttpClient http,
+                                          URI baseUri,
+                                          String customerId,
+                                          ObjectMapper mapper,
+                                          JobTracker tracker,
+                                          Executor reader) {
+        var request = HttpRequest.newBuilder(baseUri.resolve("/customers/%s/photos/stream".formatted(customerId)))
+                                 .header("Accept", "text/event-stream")
+                                 .GET()
+                                 .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                   .thenApply(response -> {
+                       if (response.statusCode() != 200) {
+                           throw new IllegalStateException("SSE stream of %s returned HTTP %d".formatted(customerId, response.statusCode()));
+                       }
+                       reader.execute(() -> response.body()
+                                                    .filter(line -> line.startsWith("data:"))
+                                                    .forEach(line -> onEvent(line.substring(5).trim(), mapper, tracker)));
+                       return null;
+                   });
+    }
+
+    private static void onEvent(String data, ObjectMapper mapper, JobTracker tracker) {
+        try {
+            var event = mapper.readValue(data, Event.class);
+            tracker.finished(event.jobId(), event.status());
+        } catch (IOException exception) {
+            System.err.println("Unreadable SSE event: " + data);
+        }
+    }
+
+    private record Event(String jobId, String status) {
+    }
+}
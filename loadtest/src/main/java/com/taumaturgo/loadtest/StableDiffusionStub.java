@@ -0,0 +1,95 @@
+package com.taumaturgo.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers {@code POST /sdapi/v1/img2img} like A1111: it reads the whole request, waits a latency drawn from a
+ * log-normal distribution fitted to {@code latency-median} and {@code latency-p99}, then returns
+ * one pre-encoded PNG, or HTTP 500 with probability {@code error-rate}.
+ * Requests are served in parallel, unlike a single GPU; cap them with {@code avatarforge.stable-diffusion.max-concurrency}.
+ */
+final class StableDiffusionStub {
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private final double mu;
+    private final double sigma;
+    private final double errorRate;
+    private final byte[] image;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private StableDiffusionStub(Duration median, Duration p99, double errorRate, byte[] image) {
+        this.mu = Math.log(median.toNanos());
+        this.sigma = p99.compareTo(median) > 0 ? Math.log((double) p99.toNanos() / median.toNanos()) / Z_99 : 0;
+        this.errorRate = errorRate;
+        this.image = Base64.getEncoder().encode(image);
+    }
+
+    static void start(Options options) throws IOException {
+        var port = options.integer("port", 7860);
+        var median = options.duration("latency-median", Duration.ofSeconds(2));
+        var p99 = options.duration("latency-p99", Duration.ofSeconds(5));
+        var errorRate = options.decimal("error-rate", 0.0);
+        var imageSize = options.integer("image-size", 512);
+        options.requireAllRead();
+
+        var stub = new StableDiffusionStub(median, p99, errorRate, TestImages.encode(imageSize, "png", 7));
+        var server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/sdapi/v1/img2img", stub::img2img);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        System.out.printf("stable-diffusion stub on :%d, latency median %s p99 %s, error rate %.3f, %dpx images (%d KB base64)%n",
+                          port, median, p99, errorRate, imageSize, stub.image.length / 1024);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.printf("stable-diffusion stub served %d, failed %d%n",
+                                                                                stub.served.get(), stub.failed.get())));
+    }
+
+    private void img2img(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            Thread.sleep(latencyMillis());
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                failed.incrementAndGet();
+                send(exchange, 500, "{\"error\":\"stub failure\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            served.incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (var output = exchange.getResponseBody()) {
+                output.write("{\"images\":[\"".getBytes(StandardCharsets.UTF_8));
+                output.write(image);
+                output.write("\"],\"parameters\":{},\"info\":\"{}\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long latencyMillis() {
+        var nanos = Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+        return Math.round(nanos / 1_000_000);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
@@ -0,0 +1,29 @@
+package com.taumaturgo.loadtest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+final class TestImages {
+
+    private TestImages() {
+    }
+
+    // Noise over a gradient, so the encoded size is close to a photo's rather than a flat fill's.
+    static byte[] encode(int size, String format, long seed) throws IOException {
+        var image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        var random = new SplittableRandom(seed);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, (x * 255 / size) << 16 | (y * 255 / size) << 8 | random.nextInt(64));
+            }
+        }
+        var output = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format, output)) {
+            throw new IllegalArgumentException("No ImageIO writer for " + format);
+        }
+        return output.toByteArray();
+    }
+}
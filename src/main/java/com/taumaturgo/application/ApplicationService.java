@@ -1,45 +1,77 @@
 package com.taumaturgo.application;
 
 import com.taumaturgo.application.dto.Customer;
+import com.taumaturgo.application.dto.CustomerPage;
 import com.taumaturgo.application.dto.ProfilePhoto;
 import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.application.dto.ProfilePhotoJobSubmission;
+import com.taumaturgo.domain.repositories.CustomerQuery;
 import com.taumaturgo.domain.services.CustomerReadService;
 import com.taumaturgo.domain.services.ProfilePhotoCreateService;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.Optional;
 
 @ApplicationScoped
 public class ApplicationService {
     private final CustomerReadService customerReadService;
     private final ProfilePhotoCreateService profilePhotoCreateService;
     private final ProfilePhotoJobStatusService jobStatusService;
+    private final SubmissionAdmission admission;
 
     public ApplicationService(CustomerReadService customerReadService,
                               ProfilePhotoCreateService profilePhotoCreateService,
-                              ProfilePhotoJobStatusService jobStatusService) {
+                              ProfilePhotoJobStatusService jobStatusService,
+                              SubmissionAdmission admission) {
         this.customerReadService = customerReadService;
         this.profilePhotoCreateService = profilePhotoCreateService;
         this.jobStatusService = jobStatusService;
+        this.admission = admission;
     }
 
-    public List<Customer> searchCustomers() {
-        return customerReadService.find().stream().map(Customer::fromDomain).toList();
+    public CustomerPage searchCustomers(Optional<String> after, int limit) {
+        var query = new CustomerQuery.Builder().withAfter(after.map(CustomerQuery.Cursor::decode))
+                                               .withLimit(limit)
+                                               .build();
+        var page = customerReadService.findPage(query);
+        return new CustomerPage(page.customers().stream().map(Customer::fromDomain).toList(),
+                                page.next().map(CustomerQuery.Cursor::encode));
     }
 
     public Customer getCustomer(String customerId) {
         return Customer.fromDomain(customerReadService.findById(customerId));
     }
 
-    public ProfilePhotoJobStatus persistProfilePhoto(String customerId, ProfilePhoto dto, String callbackUrl) {
-        return profilePhotoCreateService.submit(customerId, dto.toDomain(customerId), callbackUrl);
+    // Admission runs first: a rejected upload is never moved out of the request's cleanup list. Once moved, the
+    // upload is ours to delete until a job row points at it, and the admission is released if no row is written.
+    public ProfilePhotoJobSubmission persistProfilePhoto(String customerId, ProfilePhoto dto, String callbackUrl) {
+        var admitted = admission.admit(dto.size());
+        com.taumaturgo.domain.models.ProfilePhoto photo;
+        try {
+            photo = dto.toDomain();
+        } catch (RuntimeException exception) {
+            admitted.release();
+            throw exception;
+        }
+        ProfilePhotoJobStatus status;
+        try {
+            status = profilePhotoCreateService.submit(customerId, photo, callbackUrl);
+        } catch (RuntimeException exception) {
+            admitted.release();
+            ProfilePhoto.discard(photo);
+            throw exception;
+        }
+        admitted.created();
+        return new ProfilePhotoJobSubmission(status, admitted.estimatedCompletion().orElse(null));
     }
 
-    public ProfilePhotoJobStatus findJobStatus(String jobId) {
-        return jobStatusService.find(jobId);
+    public Uni<ProfilePhotoJobStatus> findJobStatus(String jobId) {
+        return jobStatusService.findAsync(jobId);
     }
 
-    public ProfilePhotoJobStatus waitForJobStatus(String jobId, long waitSeconds) {
-        return jobStatusService.waitForCompletion(jobId, java.time.Duration.ofSeconds(waitSeconds));
+    public Uni<ProfilePhotoJobStatus> waitForJobStatus(String jobId, long waitSeconds) {
+        return jobStatusService.waitForCompletion(jobId, Duration.ofSeconds(waitSeconds));
     }
 }
@@ -0,0 +1,7 @@
+package com.taumaturgo.application;
+
+import java.util.concurrent.Executor;
+
+// Runs calls that block a thread, such as a status read that misses the cache.
+public interface BlockingExecutor extends Executor {
+}
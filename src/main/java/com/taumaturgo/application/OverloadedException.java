@@ -0,0 +1,19 @@
+package com.taumaturgo.application;
+
+import java.time.Duration;
+
+// Thrown before anything is written for a submission that SubmissionAdmission turned away.
+public class OverloadedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,43 +1,85 @@
 package com.taumaturgo.application;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.application.events.ProfilePhotoJobEvents;
 import com.taumaturgo.domain.repositories.ProfilePhotoJobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 
 @ApplicationScoped
 public class ProfilePhotoJobStatusService {
     private final ProfilePhotoJobRepository jobRepository;
+    private final ProfilePhotoJobEvents events;
+    private final AsyncLoadingCache<String, ProfilePhotoJobStatus> cache;
 
-    public ProfilePhotoJobStatusService(ProfilePhotoJobRepository jobRepository) {
+    public ProfilePhotoJobStatusService(ProfilePhotoJobRepository jobRepository,
+                                        ProfilePhotoJobEvents events,
+                                        MeterRegistry registry,
+                                        @ConfigProperty(name = "avatarforge.jobs.status-cache.max-size", defaultValue = "10000") long maxSize,
+                                        @ConfigProperty(name = "avatarforge.jobs.status-cache.ttl", defaultValue = "PT30S") Duration ttl,
+                                        BlockingExecutor blockingExecutor) {
         this.jobRepository = jobRepository;
+        this.events = events;
+        // concurrent lookups of the same job share one in-flight load; only a miss blocks a thread, long-polls never do
+        this.cache = CaffeineCacheMetrics.monitor(registry,
+                                                  Caffeine.newBuilder()
+                                                          .maximumSize(maxSize)
+                                                          .expireAfterWrite(ttl)
+                                                          .executor(blockingExecutor)
+                                                          .recordStats()
+                                                          .buildAsync(this::find),
+                                                  "profile-photo-job-status");
+        events.onPublish(this::writeThrough);
     }
 
+    @ActivateRequestContext
     public ProfilePhotoJobStatus find(String jobId) {
         return ProfilePhotoJobStatus.fromDomain(jobRepository.findById(jobId)
                                                              .orElseThrow(NoSuchElementException::new));
     }
 
-    public ProfilePhotoJobStatus waitForCompletion(String jobId, Duration wait) {
-        var deadline = Instant.now().plus(wait);
-        var status = find(jobId);
+    public Uni<ProfilePhotoJobStatus> findAsync(String jobId) {
+        return Uni.createFrom().completionStage(() -> cache.get(jobId));
+    }
 
-        while (!status.status().isTerminal() && Instant.now().isBefore(deadline)) {
-            sleepBriefly();
-            status = find(jobId);
-        }
+    public Uni<ProfilePhotoJobStatus> waitForCompletion(String jobId, Duration wait) {
+        return Uni.createFrom().deferred(() -> {
+            var terminal = events.awaitTerminal(jobId);
+            return findAsync(jobId)
+                    .chain(current -> current.status().isTerminal()
+                            ? Uni.createFrom().item(current)
+                            : Uni.createFrom()
+                                 .completionStage(terminal)
+                                 .ifNoItem()
+                                 .after(wait)
+                                 .recoverWithUni(() -> findAsync(jobId)))
+                    .onTermination()
+                    .invoke(() -> terminal.cancel(false));
+        });
+    }
 
-        return status;
+    // Relayed events can arrive out of order, so an older transition never replaces a newer cached one.
+    private void writeThrough(ProfilePhotoJobStatus status) {
+        cache.asMap().compute(status.jobId(), (jobId, cached) -> isStale(cached, status)
+                ? CompletableFuture.completedFuture(status)
+                : cached);
     }
 
-    private void sleepBriefly() {
-        try {
-            Thread.sleep(300);
-        } catch (InterruptedException ignored) {
-            Thread.currentThread().interrupt();
+    private static boolean isStale(CompletableFuture<ProfilePhotoJobStatus> cached, ProfilePhotoJobStatus status) {
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return true;
         }
+        var current = cached.join().updatedAt();
+        return current == null || status.updatedAt() == null || !status.updatedAt().isBefore(current);
     }
 }
@@ -0,0 +1,20 @@
+package com.taumaturgo.application;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface SubmissionAdmission {
+    // Throws OverloadedException when the submission must not be queued.
+    Admission admit(long uploadBytes);
+
+    // Counted as queued until settled exactly once: created() when the job row is written, release() when no job
+    // comes of it.
+    interface Admission {
+        // Empty while the generation rate is unknown.
+        Optional<Instant> estimatedCompletion();
+
+        void created();
+
+        void release();
+    }
+}
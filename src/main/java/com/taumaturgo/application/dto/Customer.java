@@ -2,11 +2,22 @@ package com.taumaturgo.application.dto;
 
 import com.taumaturgo.domain.models.ProfilePhoto;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
-public record Customer(String customerId, List<String> photos) {
+// variants is keyed by the entry of photos it was rendered from; photos without variants are left out.
+public record Customer(String customerId, List<String> photos, Map<String, Map<String, String>> variants) {
     public static Customer fromDomain(com.taumaturgo.domain.models.Customer domain) {
         return new Customer(domain.id(),
-                            domain.profilePhotos().stream().map(ProfilePhoto::generatedPhoto).toList());
+                            domain.profilePhotos().stream().map(ProfilePhoto::generatedPhoto).toList(),
+                            domain.profilePhotos()
+                                  .stream()
+                                  .filter(photo -> photo.generatedPhoto() != null && !photo.variants().isEmpty())
+                                  .collect(Collectors.toMap(ProfilePhoto::generatedPhoto,
+                                                            ProfilePhoto::variants,
+                                                            (first, second) -> first,
+                                                            LinkedHashMap::new)));
     }
 }
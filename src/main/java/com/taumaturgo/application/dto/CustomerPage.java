@@ -0,0 +1,7 @@
+package com.taumaturgo.application.dto;
+
+import java.util.List;
+import java.util.Optional;
+
+public record CustomerPage(List<Customer> customers, Optional<String> next) {
+}
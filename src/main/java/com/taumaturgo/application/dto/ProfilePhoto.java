@@ -1,26 +1,104 @@
 package com.taumaturgo.application.dto;
 
+import org.jboss.logging.Logger;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
-public record ProfilePhoto(FileUpload fileUpload) {
-    public static ProfilePhoto create(FileUpload fileUpload) {
-        return new ProfilePhoto(fileUpload);
+public record ProfilePhoto(FileUpload fileUpload, Format format) {
+    private static final int HEADER_LENGTH = 8;
+
+    // Only the part headers and the first bytes are read, so validation costs the same for any photo size.
+    public static ProfilePhoto create(FileUpload fileUpload, long maxBytes) {
+        if (fileUpload == null || fileUpload.size() == 0) {
+            throw new IllegalArgumentException("photo is required");
+        }
+        if (fileUpload.size() > maxBytes) {
+            throw new UploadTooLargeException("photo is %d bytes, the limit is %d".formatted(fileUpload.size(), maxBytes));
+        }
+        var format = Format.detect(header(fileUpload.uploadedFile()))
+                           .orElseThrow(() -> new IllegalArgumentException("photo must be a PNG or JPEG image"));
+        var declared = fileUpload.contentType();
+        if (declared != null && declared.startsWith("image/") && !declared.equals(format.contentType())) {
+            throw new IllegalArgumentException("photo is %s but was sent as %s".formatted(format.contentType(), declared));
+        }
+        return new ProfilePhoto(fileUpload, format);
     }
 
-    public com.taumaturgo.domain.models.ProfilePhoto toDomain(String customerId) {
+    public long size() {
+        return fileUpload.size();
+    }
+
+    // RESTEasy already spooled the upload; renaming it next to itself keeps the move on one filesystem, so the
+    // request never copies the image. The new name is no longer in the request's cleanup list.
+    public com.taumaturgo.domain.models.ProfilePhoto toDomain() {
+        var id = UUID.randomUUID().toString();
+        var uploaded = fileUpload.uploadedFile();
+        var spooled = uploaded.resolveSibling("profile-photo-%s%s".formatted(id, format.extension()));
         try {
-            Path tempFile = Files.createTempFile("profile-photo-" + customerId + "-", "-" + fileUpload.fileName());
-            Files.copy(fileUpload.uploadedFile(), tempFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-            return new com.taumaturgo.domain.models.ProfilePhoto(UUID.randomUUID().toString(),
-                                                                 tempFile.toAbsolutePath().toString(),
-                                                                 null);
+            try {
+                Files.move(uploaded, spooled, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(uploaded, spooled);
+            }
+            return new com.taumaturgo.domain.models.ProfilePhoto(id, spooled.toAbsolutePath().toString(), null, Map.of(), format.contentType());
         } catch (IOException exception) {
             throw new IllegalStateException("Unable to persist upload", exception);
         }
     }
+
+    // For a moved upload whose job was never created.
+    public static void discard(com.taumaturgo.domain.models.ProfilePhoto spooled) {
+        try {
+            Files.deleteIfExists(Path.of(spooled.originalPhoto()));
+        } catch (IOException exception) {
+            Logger.getLogger(ProfilePhoto.class).warnf(exception, "Failed to cleanup upload %s", spooled.originalPhoto());
+        }
+    }
+
+    private static byte[] header(Path file) {
+        try (var input = Files.newInputStream(file)) {
+            return input.readNBytes(HEADER_LENGTH);
+        } catch (IOException exception) {
+            throw new IllegalStateException("Unable to read upload", exception);
+        }
+    }
+
+    public enum Format {
+        PNG("image/png", ".png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+        JPEG("image/jpeg", ".jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF});
+
+        private final String contentType;
+        private final String extension;
+        private final byte[] magic;
+
+        Format(String contentType, String extension, byte[] magic) {
+            this.contentType = contentType;
+            this.extension = extension;
+            this.magic = magic;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        static Optional<Format> detect(byte[] header) {
+            return Arrays.stream(values())
+                         .filter(format -> header.length >= format.magic.length
+                                 && Arrays.equals(header, 0, format.magic.length, format.magic, 0, format.magic.length))
+                         .findFirst();
+        }
+    }
 }
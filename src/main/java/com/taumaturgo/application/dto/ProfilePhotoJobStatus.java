@@ -1,26 +1,46 @@
 package com.taumaturgo.application.dto;
 
 import com.taumaturgo.domain.models.ProfilePhotoJob;
+import com.taumaturgo.domain.models.ProfilePhotoJobEvent;
 import com.taumaturgo.domain.models.ProcessingStatus;
 
 import java.time.Instant;
+import java.util.Map;
 
 public record ProfilePhotoJobStatus(String jobId,
                                     String customerId,
                                     ProcessingStatus status,
                                     String originalPhotoUrl,
                                     String generatedPhotoUrl,
+                                    Map<String, String> variants,
                                     String error,
                                     Instant createdAt,
                                     Instant updatedAt) {
+    public ProfilePhotoJobStatus {
+        variants = variants == null ? Map.of() : variants;
+    }
+
     public static ProfilePhotoJobStatus fromDomain(ProfilePhotoJob job) {
         return new ProfilePhotoJobStatus(job.id(),
                                          job.customerId(),
                                          job.status(),
                                          job.originalPhotoUrl(),
                                          job.generatedPhotoUrl(),
+                                         job.profilePhoto().variants(),
                                          job.error(),
                                          job.createdAt(),
                                          job.updatedAt());
     }
+
+    public static ProfilePhotoJobStatus fromEvent(ProfilePhotoJobEvent event) {
+        return new ProfilePhotoJobStatus(event.jobId(),
+                                         event.customerId(),
+                                         event.status(),
+                                         event.originalPhotoUrl(),
+                                         event.generatedPhotoUrl(),
+                                         event.variants(),
+                                         event.error(),
+                                         event.createdAt(),
+                                         event.updatedAt());
+    }
 }
@@ -0,0 +1,12 @@
+package com.taumaturgo.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.time.Instant;
+
+// The status fields stay at the top level, so clients reading the submit response as a status keep working.
+// estimatedCompletionAt is left out until the generation rate has been measured.
+public record ProfilePhotoJobSubmission(@JsonUnwrapped ProfilePhotoJobStatus status,
+                                        @JsonInclude(JsonInclude.Include.NON_NULL) Instant estimatedCompletionAt) {
+}
@@ -0,0 +1,10 @@
+package com.taumaturgo.application.dto;
+
+// Thrown by ProfilePhoto.create before the upload is moved out of the request's cleanup list.
+public class UploadTooLargeException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
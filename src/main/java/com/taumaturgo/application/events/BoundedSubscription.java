@@ -0,0 +1,117 @@
+package com.taumaturgo.application.events;
+
+import com.taumaturgo.application.events.ProfilePhotoJobEvents.OverflowPolicy;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Per-subscriber buffer that honours downstream demand and applies an explicit policy once it is full.
+final class BoundedSubscription<T> implements Flow.Subscription {
+    private final Flow.Subscriber<? super T> downstream;
+    private final ArrayDeque<T> buffer;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Consumer<BoundedSubscription<T>> onTermination;
+    private final AtomicInteger wip = new AtomicInteger();
+    private long requested;
+    private Throwable failure;
+    private boolean cancelled;
+    private boolean done;
+
+    BoundedSubscription(Flow.Subscriber<? super T> downstream,
+                        int capacity,
+                        OverflowPolicy policy,
+                        Consumer<BoundedSubscription<T>> onTermination) {
+        this.downstream = downstream;
+        this.buffer = new ArrayDeque<>(Math.min(capacity, 16));
+        this.capacity = capacity;
+        this.policy = policy;
+        this.onTermination = onTermination;
+    }
+
+    void offer(T item) {
+        synchronized (this) {
+            if (cancelled || done || failure != null) {
+                return;
+            }
+            if (buffer.size() >= capacity) {
+                switch (policy) {
+                    case DROP_NEWEST -> {
+                        return;
+                    }
+                    case DROP_OLDEST -> buffer.pollFirst();
+                    case FAIL -> failure = new BackPressureFailure("Subscriber could not keep up with job status updates");
+                }
+            }
+            if (failure == null) {
+                buffer.addLast(item);
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        synchronized (this) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("Requested %d items, expected a positive number".formatted(n));
+            } else {
+                requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled || done) {
+                return;
+            }
+            cancelled = true;
+            buffer.clear();
+        }
+        onTermination.accept(this);
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (true) {
+                T next = null;
+                Throwable error = null;
+                synchronized (this) {
+                    if (cancelled || done) {
+                        return;
+                    }
+                    if (failure != null) {
+                        done = true;
+                        error = failure;
+                        buffer.clear();
+                    } else if (requested > 0 && !buffer.isEmpty()) {
+                        next = buffer.pollFirst();
+                        if (requested != Long.MAX_VALUE) {
+                            requested--;
+                        }
+                    }
+                }
+                if (error != null) {
+                    onTermination.accept(this);
+                    downstream.onError(error);
+                    return;
+                }
+                if (next == null) {
+                    break;
+                }
+                downstream.onNext(next);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -2,18 +2,100 @@ package com.taumaturgo.application.events;
 
 import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
 import io.smallrye.mutiny.Multi;
-import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @ApplicationScoped
 public class ProfilePhotoJobEvents {
-    private final BroadcastProcessor<ProfilePhotoJobStatus> processor = BroadcastProcessor.create();
+    private final Map<String, Set<BoundedSubscription<ProfilePhotoJobStatus>>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<CompletableFuture<ProfilePhotoJobStatus>>> terminalWaiters = new ConcurrentHashMap<>();
+    private final List<Consumer<ProfilePhotoJobStatus>> listeners = new CopyOnWriteArrayList<>();
+    private final int subscriberBuffer;
+    private final OverflowPolicy overflowPolicy;
+
+    public ProfilePhotoJobEvents() {
+        this(256, OverflowPolicy.FAIL);
+    }
+
+    @Inject
+    public ProfilePhotoJobEvents(@ConfigProperty(name = "avatarforge.events.subscriber-buffer", defaultValue = "256") int subscriberBuffer,
+                                 @ConfigProperty(name = "avatarforge.events.overflow-policy", defaultValue = "FAIL") OverflowPolicy overflowPolicy) {
+        this.subscriberBuffer = subscriberBuffer;
+        this.overflowPolicy = overflowPolicy;
+    }
 
     public void publish(ProfilePhotoJobStatus status) {
-        processor.onNext(status);
+        listeners.forEach(listener -> listener.accept(status));
+        var customerSubscribers = subscribers.get(status.customerId());
+        if (customerSubscribers != null) {
+            customerSubscribers.forEach(subscription -> subscription.offer(status));
+        }
+        if (status.status().isTerminal()) {
+            var waiters = terminalWaiters.remove(status.jobId());
+            if (waiters != null) {
+                waiters.forEach(waiter -> waiter.complete(status));
+            }
+        }
     }
 
     public Multi<ProfilePhotoJobStatus> streamByCustomer(String customerId) {
-        return processor.filter(status -> status.customerId().equals(customerId));
+        return Multi.createFrom().publisher(subscriber -> {
+            var subscription = new BoundedSubscription<ProfilePhotoJobStatus>(subscriber,
+                                                                              subscriberBuffer,
+                                                                              overflowPolicy,
+                                                                              terminated -> unregister(subscribers, customerId, terminated));
+            register(subscribers, customerId, subscription);
+            subscriber.onSubscribe(subscription);
+        });
+    }
+
+    // Register before reading the current state so a terminal event published in between is not missed.
+    // Cancelling the returned future unregisters it.
+    public CompletableFuture<ProfilePhotoJobStatus> awaitTerminal(String jobId) {
+        var waiter = new CompletableFuture<ProfilePhotoJobStatus>();
+        register(terminalWaiters, jobId, waiter);
+        waiter.whenComplete((status, failure) -> unregister(terminalWaiters, jobId, waiter));
+        return waiter;
+    }
+
+    // Runs synchronously on every publish, before subscribers and waiters are notified.
+    public void onPublish(Consumer<ProfilePhotoJobStatus> listener) {
+        listeners.add(listener);
+    }
+
+    int subscriberCount(String customerId) {
+        var customerSubscribers = subscribers.get(customerId);
+        return customerSubscribers == null ? 0 : customerSubscribers.size();
+    }
+
+    private static <T> void register(Map<String, Set<T>> registry, String key, T value) {
+        registry.compute(key, (id, values) -> {
+            var registered = values == null ? ConcurrentHashMap.<T>newKeySet() : values;
+            registered.add(value);
+            return registered;
+        });
+    }
+
+    private static <T> void unregister(Map<String, Set<T>> registry, String key, T value) {
+        registry.computeIfPresent(key, (id, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    public enum OverflowPolicy {
+        // terminate the stream with a BackPressureFailure; clients reconnect and re-read the current status
+        FAIL,
+        DROP_OLDEST,
+        DROP_NEWEST
     }
 }
@@ -0,0 +1,11 @@
+package com.taumaturgo.domain.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record GenerationResult(String originalPhotoUrl, String generatedPhotoUrl, Map<String, String> variants) {
+    public GenerationResult {
+        variants = variants == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(variants));
+    }
+}
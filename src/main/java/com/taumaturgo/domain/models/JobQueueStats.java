@@ -0,0 +1,7 @@
+package com.taumaturgo.domain.models;
+
+import java.time.Instant;
+
+// oldestPendingAt is null when nothing is pending.
+public record JobQueueStats(long pending, Instant oldestPendingAt) {
+}
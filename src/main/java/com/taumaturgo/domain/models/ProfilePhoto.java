@@ -1,4 +1,25 @@
 package com.taumaturgo.domain.models;
 
-public record ProfilePhoto(String id, String originalPhoto, String generatedPhoto) {
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// variants maps a configured variant name, like jpeg-64, to the URL of that rendition of the generated photo.
+// originalContentType is the format detected when the photo was uploaded; null for photos read back from storage.
+public record ProfilePhoto(String id,
+                           String originalPhoto,
+                           String generatedPhoto,
+                           Map<String, String> variants,
+                           String originalContentType) {
+    public ProfilePhoto {
+        variants = variants == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(variants));
+    }
+
+    public ProfilePhoto(String id, String originalPhoto, String generatedPhoto, Map<String, String> variants) {
+        this(id, originalPhoto, generatedPhoto, variants, null);
+    }
+
+    public ProfilePhoto(String id, String originalPhoto, String generatedPhoto) {
+        this(id, originalPhoto, generatedPhoto, Map.of());
+    }
 }
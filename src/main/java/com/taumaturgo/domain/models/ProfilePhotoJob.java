@@ -1,6 +1,7 @@
 package com.taumaturgo.domain.models;
 
 import java.time.Instant;
+import java.util.Map;
 
 public record ProfilePhotoJob(String id,
                               String customerId,
@@ -10,6 +11,35 @@ public record ProfilePhotoJob(String id,
                               String generatedPhotoUrl,
                               String callbackUrl,
                               String error,
+                              int attempts,
+                              long version,
                               Instant createdAt,
-                               Instant updatedAt) {
+                              Instant updatedAt) {
+
+    // Null URLs and variants keep the current ones.
+    public ProfilePhotoJob transition(ProcessingStatus status,
+                                      String originalPhotoUrl,
+                                      String generatedPhotoUrl,
+                                      Map<String, String> variants,
+                                      String error,
+                                      Instant at) {
+        var original = originalPhotoUrl != null ? originalPhotoUrl : this.originalPhotoUrl;
+        var generated = generatedPhotoUrl != null ? generatedPhotoUrl : this.generatedPhotoUrl;
+        return new ProfilePhotoJob(id,
+                                   customerId,
+                                   new ProfilePhoto(profilePhoto.id(),
+                                                    original,
+                                                    generated,
+                                                    variants != null ? variants : profilePhoto.variants(),
+                                                    profilePhoto.originalContentType()),
+                                   status,
+                                   original,
+                                   generated,
+                                   callbackUrl,
+                                   error,
+                                   attempts,
+                                   version + 1,
+                                   createdAt,
+                                   at);
+    }
 }
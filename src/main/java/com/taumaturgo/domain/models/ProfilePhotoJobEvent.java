@@ -0,0 +1,17 @@
+package com.taumaturgo.domain.models;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record ProfilePhotoJobEvent(long sequence,
+                                   String originNode,
+                                   String jobId,
+                                   String customerId,
+                                   ProcessingStatus status,
+                                   String originalPhotoUrl,
+                                   String generatedPhotoUrl,
+                                   Map<String, String> variants,
+                                   String error,
+                                   Instant createdAt,
+                                   Instant updatedAt) {
+}
@@ -0,0 +1,7 @@
+package com.taumaturgo.domain.models;
+
+import java.time.Instant;
+
+// payload is the JSON body, already serialized when the delivery was queued.
+public record WebhookDelivery(long id, String callbackUrl, String jobId, String payload, int attempts, Instant createdAt) {
+}
@@ -1,21 +1,64 @@
 package com.taumaturgo.domain.repositories;
 
+import com.taumaturgo.domain.models.Customer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 public class CustomerQuery {
     private final Optional<Set<String>> ids;
+    private final Optional<Cursor> after;
+    private final Optional<Integer> limit;
 
     public Optional<Set<String>> ids() {
         return ids;
     }
 
-    private CustomerQuery(Optional<Set<String>> ids) {
+    public Optional<Cursor> after() {
+        return after;
+    }
+
+    public Optional<Integer> limit() {
+        return limit;
+    }
+
+    private CustomerQuery(Optional<Set<String>> ids, Optional<Cursor> after, Optional<Integer> limit) {
         this.ids = ids;
+        this.after = after;
+        this.limit = limit;
+    }
+
+    // Position of the last photo returned, in (customer_id, id) order.
+    public record Cursor(String customerId, String photoId) {
+        private static final String SEPARATOR = "\n";
+
+        public String encode() {
+            return Base64.getUrlEncoder()
+                         .withoutPadding()
+                         .encodeToString((customerId + SEPARATOR + photoId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String value) {
+            var decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            var separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid customer cursor");
+            }
+            return new Cursor(decoded.substring(0, separator), decoded.substring(separator + 1));
+        }
+    }
+
+    // next is the cursor to pass as after for the following page, present only when more photos follow.
+    public record Page(List<Customer> customers, Optional<Cursor> next) {
     }
 
     public static class Builder {
         private Optional<Set<String>> ids = Optional.empty();
+        private Optional<Cursor> after = Optional.empty();
+        private Optional<Integer> limit = Optional.empty();
 
         public Builder withIds(Optional<Set<String>> ids) {
             this.ids = ids;
@@ -26,8 +69,18 @@ public class CustomerQuery {
             return withIds(Optional.of(Set.of(id)));
         }
 
+        public Builder withAfter(Optional<Cursor> after) {
+            this.after = after;
+            return this;
+        }
+
+        public Builder withLimit(int limit) {
+            this.limit = Optional.of(limit);
+            return this;
+        }
+
         public CustomerQuery build() {
-            return new CustomerQuery(ids);
+            return new CustomerQuery(ids, after, limit);
         }
     }
 }
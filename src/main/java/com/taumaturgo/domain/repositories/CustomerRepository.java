@@ -2,17 +2,19 @@ package com.taumaturgo.domain.repositories;
 
 import com.taumaturgo.domain.models.Customer;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerRepository {
-    List<Customer> find(CustomerQuery query);
+    // Lazily grouped from rows sorted by (customer_id, id); callers must close the stream.
+    Stream<Customer> find(CustomerQuery query);
 
-    default List<Customer> findAll() {
-        return find(new CustomerQuery.Builder().build());
-    }
+    // Reads at most limit photos plus one, which only tells whether another page follows.
+    CustomerQuery.Page findPage(CustomerQuery query);
 
     default Optional<Customer> findById(String id) {
-        return find(new CustomerQuery.Builder().withId(id).build()).stream().findFirst();
+        try (var customers = find(new CustomerQuery.Builder().withId(id).build())) {
+            return customers.findFirst();
+        }
     }
 }
@@ -0,0 +1,12 @@
+package com.taumaturgo.domain.repositories;
+
+import com.taumaturgo.domain.models.GenerationResult;
+
+import java.util.Optional;
+
+public interface GenerationResultRepository {
+    Optional<GenerationResult> find(String cacheKey);
+
+    // First writer wins; concurrent generations of the same key produce equivalent results.
+    void save(String cacheKey, GenerationResult result);
+}
@@ -0,0 +1,17 @@
+package com.taumaturgo.domain.repositories;
+
+import com.taumaturgo.domain.models.ProfilePhotoJobEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProfilePhotoJobEventRepository {
+    List<ProfilePhotoJobEvent> findAfter(long sequence, int limit);
+
+    List<ProfilePhotoJobEvent> findBySequences(Collection<Long> sequences);
+
+    long lastSequence();
+
+    int deleteOlderThan(Instant instant);
+}
@@ -1,9 +1,12 @@
 package com.taumaturgo.domain.repositories;
 
+import com.taumaturgo.domain.models.JobQueueStats;
 import com.taumaturgo.domain.models.ProfilePhoto;
 import com.taumaturgo.domain.models.ProfilePhotoJob;
 import com.taumaturgo.domain.models.ProcessingStatus;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProfilePhotoJobRepository {
@@ -11,7 +14,18 @@ public interface ProfilePhotoJobRepository {
 
     Optional<ProfilePhotoJob> findById(String jobId);
 
-    void updateStatus(String jobId, ProcessingStatus status, String error);
+    // Moves the job from the version the caller holds; empty when another node claimed or finished it in the meantime.
+    Optional<ProfilePhotoJob> transition(ProfilePhotoJob job,
+                                         ProcessingStatus status,
+                                         String originalPhotoUrl,
+                                         String generatedPhotoUrl,
+                                         Map<String, String> variants,
+                                         String error);
 
-    void updateResult(String jobId, String originalPhotoUrl, String generatedPhotoUrl);
+    // Claims the oldest PENDING job, or a PROCESSING one whose lease expired, for exclusive use by owner.
+    Optional<ProfilePhotoJob> claimNext(String owner, Duration lease);
+
+    int renewLeases(String owner, Duration lease);
+
+    JobQueueStats queueStats();
 }
@@ -3,8 +3,12 @@ package com.taumaturgo.domain.repositories;
 import com.taumaturgo.domain.models.ProfilePhoto;
 import io.smallrye.mutiny.Uni;
 
+import java.nio.file.Path;
+
 public interface ProfilePhotoStorageRepository {
     Uni<String> store(String customerId, ProfilePhoto profilePhoto);
 
-    Uni<String> store(String customerId, ProfilePhoto profilePhoto, String base64);
+    Uni<String> store(String customerId, ProfilePhoto profilePhoto, Path generatedPhoto);
+
+    Uni<String> store(String customerId, ProfilePhoto profilePhoto, String variant, Path variantPhoto, String contentType);
 }
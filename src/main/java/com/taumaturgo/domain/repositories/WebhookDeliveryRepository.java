@@ -0,0 +1,29 @@
+package com.taumaturgo.domain.repositories;
+
+import com.taumaturgo.domain.models.WebhookDelivery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public interface WebhookDeliveryRepository {
+    void enqueue(String callbackUrl, String jobId, String payload);
+
+    // Leases up to limit deliveries that are due and not leased by a live owner, oldest due first.
+    List<WebhookDelivery> claimDue(String owner, Duration lease, int limit);
+
+    // The settling methods only touch deliveries still leased by owner, so a node whose lease ran out while it was
+    // sending cannot overwrite the outcome of the node that claimed them next.
+    void delivered(String owner, List<Long> ids);
+
+    void retry(String owner, long id, Instant nextAttemptAt, String error);
+
+    // Hands leased deliveries back untouched, for another poll to pick up.
+    void release(String owner, List<Long> ids);
+
+    void abandon(String owner, List<Long> ids, String error);
+
+    long pending();
+
+    int deleteAbandonedBefore(Instant instant);
+}
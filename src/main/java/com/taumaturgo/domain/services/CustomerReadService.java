@@ -1,11 +1,12 @@
 package com.taumaturgo.domain.services;
 
 import com.taumaturgo.domain.models.Customer;
+import com.taumaturgo.domain.repositories.CustomerQuery;
 import com.taumaturgo.domain.repositories.CustomerRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 
-import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class CustomerReadService {
@@ -15,8 +16,12 @@ public class CustomerReadService {
         this.repository = repository;
     }
 
-    public List<Customer> find() {
-        return repository.findAll();
+    public Stream<Customer> find(CustomerQuery query) {
+        return repository.find(query);
+    }
+
+    public CustomerQuery.Page findPage(CustomerQuery query) {
+        return repository.findPage(query);
     }
 
     public Customer findById(String id) {
@@ -7,6 +7,7 @@ import com.taumaturgo.domain.models.ProfilePhotoJob;
 import com.taumaturgo.domain.repositories.ProfilePhotoJobRepository;
 import com.taumaturgo.infrastructure.async.ProfilePhotoAsyncProcessor;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class ProfilePhotoCreateService {
@@ -22,10 +23,17 @@ public class ProfilePhotoCreateService {
         this.events = events;
     }
 
+    // Throws only while no job exists. Once the row is committed the submission stands: a listener failing here
+    // must not turn an accepted job into an error, and the dispatcher's poll claims it without the wake-up.
     public ProfilePhotoJobStatus submit(String customerId, ProfilePhoto profilePhoto, String callbackUrl) {
         ProfilePhotoJob job = jobRepository.create(customerId, profilePhoto, callbackUrl);
-        events.publish(ProfilePhotoJobStatus.fromDomain(job));
-        asyncProcessor.enqueue(job.id());
-        return ProfilePhotoJobStatus.fromDomain(job);
+        var status = ProfilePhotoJobStatus.fromDomain(job);
+        try {
+            events.publish(status);
+            asyncProcessor.enqueue(job.id());
+        } catch (RuntimeException exception) {
+            Logger.getLogger(getClass()).warnf(exception, "Failed to announce job %s", job.id());
+        }
+        return status;
     }
 }
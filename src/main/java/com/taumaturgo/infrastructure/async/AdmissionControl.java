@@ -0,0 +1,277 @@
+package com.taumaturgo.infrastructure.async;
+
+import com.taumaturgo.application.OverloadedException;
+import com.taumaturgo.application.SubmissionAdmission;
+import com.taumaturgo.application.events.ProfilePhotoJobEvents;
+import com.taumaturgo.domain.repositories.ProfilePhotoJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Rejects submissions past max-pending, max-spooled-size or max-drain-time at the generation rate seen under backlog.
+@ApplicationScoped
+public class AdmissionControl implements SubmissionAdmission {
+    public enum Reason {
+        QUEUE_DEPTH,
+        SPOOLED_SIZE,
+        DRAIN_TIME
+    }
+
+    private final ProfilePhotoJobRepository jobRepository;
+    private final ProfilePhotoJobEvents events;
+    private final Counter[] rejected = new Counter[Reason.values().length];
+    private final LongAdder finished = new LongAdder();
+    private final AtomicLong acceptedJobs = new AtomicLong();
+    private final AtomicLong acceptedBytes = new AtomicLong();
+    private final Object acceptedLock = new Object();
+    private long createdJobs;
+    private long createdBytes;
+    private ScheduledExecutorService sampler;
+    private volatile long pending;
+    private volatile long spooledBytes;
+    private volatile double generationRate;
+    private volatile boolean backlogged;
+    private long lastSampleNanos;
+    private double busySeconds;
+    private double busyFinished;
+
+    @ConfigProperty(name = "avatarforge.admission.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "avatarforge.admission.max-pending", defaultValue = "10000")
+    long maxPending;
+
+    @ConfigProperty(name = "avatarforge.admission.max-spooled-size", defaultValue = "10G")
+    MemorySize maxSpooledSize;
+
+    @ConfigProperty(name = "avatarforge.admission.max-drain-time", defaultValue = "PT2H")
+    Duration maxDrainTime;
+
+    @ConfigProperty(name = "avatarforge.admission.max-retry-after", defaultValue = "PT10M")
+    Duration maxRetryAfter;
+
+    @ConfigProperty(name = "avatarforge.admission.sample-interval", defaultValue = "PT2S")
+    Duration sampleInterval;
+
+    @ConfigProperty(name = "avatarforge.admission.rate-window", defaultValue = "PT1M")
+    Duration rateWindow;
+
+    @ConfigProperty(name = "quarkus.http.body.uploads-directory", defaultValue = "${java.io.tmpdir}/uploads")
+    String uploadsDirectory;
+
+    public AdmissionControl(ProfilePhotoJobRepository jobRepository, ProfilePhotoJobEvents events, MeterRegistry registry) {
+        this.jobRepository = jobRepository;
+        this.events = events;
+        for (var reason : Reason.values()) {
+            rejected[reason.ordinal()] = Counter.builder("admission.rejected")
+                                                .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                                                .register(registry);
+        }
+        Gauge.builder("admission.generation_rate", this, control -> control.generationRate).register(registry);
+        Gauge.builder("admission.spooled_bytes", this, control -> control.spooledBytes + control.acceptedBytes.get())
+             .register(registry);
+    }
+
+    void start(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        events.onPublish(status -> {
+            if (status.status().isTerminal()) {
+                finished.increment();
+            }
+        });
+        lastSampleNanos = System.nanoTime();
+        sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleWithFixedDelay(this::sampleSafely, 0, sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Counts the job as queued right away, so a burst between two samples cannot slip past the limits.
+    @Override
+    public Admission admit(long uploadBytes) {
+        if (!enabled) {
+            return new CountedAdmission(0, null, true);
+        }
+        var queued = pending + acceptedJobs.get();
+        var spooled = spooledBytes + acceptedBytes.get();
+        var rate = generationRate;
+
+        Reason reason = null;
+        var excessJobs = 0.0;
+        if (queued + 1 > maxPending) {
+            reason = Reason.QUEUE_DEPTH;
+            excessJobs = queued + 1 - maxPending;
+        }
+        var spoolLimit = maxSpooledSize.asLongValue();
+        if (spooled + uploadBytes > spoolLimit) {
+            var bytesPerJob = queued > 0 ? Math.max(1.0, (double) spooled / queued) : Math.max(1.0, uploadBytes);
+            var jobs = (spooled + uploadBytes - spoolLimit) / bytesPerJob;
+            if (reason == null || jobs > excessJobs) {
+                reason = Reason.SPOOLED_SIZE;
+                excessJobs = jobs;
+            }
+        }
+        if (rate > 0 && (queued + 1) / rate > maxDrainTime.toSeconds()) {
+            var jobs = queued + 1 - maxDrainTime.toSeconds() * rate;
+            if (reason == null || jobs > excessJobs) {
+                reason = Reason.DRAIN_TIME;
+                excessJobs = jobs;
+            }
+        }
+        if (reason != null) {
+            rejected[reason.ordinal()].increment();
+            var retryAfter = retryAfter(excessJobs, rate);
+            throw new OverloadedException("Too many photos waiting (%s), retry in %ds"
+                                                  .formatted(reason.name().toLowerCase(Locale.ROOT), retryAfter.toSeconds()),
+                                          retryAfter);
+        }
+
+        var estimatedCompletion = rate > 0 ? Instant.now().plusMillis(Math.round((queued + 1) / rate * 1000)) : null;
+        synchronized (acceptedLock) {
+            acceptedJobs.incrementAndGet();
+            acceptedBytes.addAndGet(uploadBytes);
+            return new CountedAdmission(uploadBytes, estimatedCompletion, false);
+        }
+    }
+
+    // Whole seconds, as Retry-After carries them; without a measured rate the longest wait is the honest answer.
+    private Duration retryAfter(double excessJobs, double rate) {
+        if (rate <= 0) {
+            return maxRetryAfter;
+        }
+        var seconds = (long) Math.ceil(excessJobs / rate);
+        return Duration.ofSeconds(Math.max(1, Math.min(maxRetryAfter.toSeconds(), seconds)));
+    }
+
+    // Only submissions whose job was written before the queue is read are handed over to it; the rest stay counted,
+    // and a job written during the read counts twice until the next sample, which errs on the side of rejecting.
+    @ActivateRequestContext
+    void sample() {
+        long jobs;
+        long bytes;
+        synchronized (acceptedLock) {
+            jobs = createdJobs;
+            bytes = createdBytes;
+            createdJobs = 0;
+            createdBytes = 0;
+        }
+        record(jobRepository.queueStats().pending(), spooledBytes(), finished.sumThenReset(), System.nanoTime());
+        acceptedJobs.addAndGet(-jobs);
+        acceptedBytes.addAndGet(-bytes);
+    }
+
+    // Busy time and completions decay over rate-window, so the rate follows capacity changes without a fixed window.
+    // Only intervals that started with jobs waiting count: with an empty queue, completions follow arrivals instead.
+    synchronized void record(long pendingJobs, long spooled, long finishedJobs, long nowNanos) {
+        var elapsed = (nowNanos - lastSampleNanos) / 1e9;
+        lastSampleNanos = nowNanos;
+        if (backlogged && elapsed > 0) {
+            var decay = Math.exp(-elapsed / rateWindow.toSeconds());
+            busySeconds = busySeconds * decay + elapsed;
+            busyFinished = busyFinished * decay + finishedJobs;
+            if (busyFinished >= 1) {
+                generationRate = busyFinished / busySeconds;
+            }
+        }
+        pending = pendingJobs;
+        spooledBytes = spooled;
+        backlogged = pendingJobs > 0;
+    }
+
+    // Accepted uploads wait as profile-photo-* in the uploads directory until their job is done, whichever node runs it.
+    private long spooledBytes() {
+        var total = 0L;
+        try (var files = Files.newDirectoryStream(Path.of(uploadsDirectory), "profile-photo-*")) {
+            for (var file : files) {
+                try {
+                    total += Files.size(file);
+                } catch (NoSuchFileException ignored) {
+                    // finished while we were counting
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+            // nothing uploaded yet
+        } catch (IOException exception) {
+            Logger.getLogger(getClass()).warnf(exception, "Failed to measure %s", uploadsDirectory);
+            return spooledBytes;
+        }
+        return total;
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warn("Failed to sample the job queue for admission control", exception);
+        }
+    }
+
+    private final class CountedAdmission implements Admission {
+        private final long uploadBytes;
+        private final Instant estimatedCompletion;
+        private boolean settled;
+
+        private CountedAdmission(long uploadBytes, Instant estimatedCompletion, boolean settled) {
+            this.uploadBytes = uploadBytes;
+            this.estimatedCompletion = estimatedCompletion;
+            this.settled = settled;
+        }
+
+        // Empty until a backlog has been seen, as the rate is unknown before that.
+        @Override
+        public Optional<Instant> estimatedCompletion() {
+            return Optional.ofNullable(estimatedCompletion);
+        }
+
+        @Override
+        public void created() {
+            synchronized (acceptedLock) {
+                if (!settled) {
+                    settled = true;
+                    createdJobs++;
+                    createdBytes += uploadBytes;
+                }
+            }
+        }
+
+        @Override
+        public void release() {
+            synchronized (acceptedLock) {
+                if (!settled) {
+                    settled = true;
+                    acceptedJobs.decrementAndGet();
+                    acceptedBytes.addAndGet(-uploadBytes);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+}
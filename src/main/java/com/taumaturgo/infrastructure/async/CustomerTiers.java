@@ -0,0 +1,69 @@
+package com.taumaturgo.infrastructure.async;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Weighted tiers for fair scheduling, as tier:weight pairs; customers are placed with customer-id:tier pairs.
+@ApplicationScoped
+public class CustomerTiers {
+    // A weight-1 job advances its customer's virtual clock by this much, so weights up to it divide without rounding to zero.
+    public static final long VIRTUAL_JOB_COST = 1_000_000;
+
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private final Map<String, String> customers = new HashMap<>();
+    private final String defaultTier;
+
+    public CustomerTiers(@ConfigProperty(name = "avatarforge.jobs.fairness.tiers", defaultValue = "standard:1,priority:4") List<String> tiers,
+                         @ConfigProperty(name = "avatarforge.jobs.fairness.default-tier", defaultValue = "standard") String defaultTier,
+                         @ConfigProperty(name = "avatarforge.jobs.fairness.customers") Optional<List<String>> customers) {
+        for (var tier : tiers) {
+            var parts = pair(tier, "tier:weight");
+            var weight = Integer.parseInt(parts[1]);
+            if (weight < 1 || weight > VIRTUAL_JOB_COST) {
+                throw new IllegalArgumentException("Weight of tier %s must be between 1 and %d".formatted(parts[0], VIRTUAL_JOB_COST));
+            }
+            weights.put(parts[0], weight);
+        }
+        this.defaultTier = requireTier(defaultTier);
+        customers.orElse(List.of()).forEach(customer -> {
+            var parts = pair(customer, "customer-id:tier");
+            this.customers.put(parts[0], requireTier(parts[1]));
+        });
+    }
+
+    public Set<String> tiers() {
+        return Collections.unmodifiableSet(weights.keySet());
+    }
+
+    public String tier(String customerId) {
+        return customers.getOrDefault(customerId, defaultTier);
+    }
+
+    // How far one job moves the customer's virtual clock: heavier tiers move slower and so come up more often.
+    public long virtualCost(String customerId) {
+        return VIRTUAL_JOB_COST / weights.get(tier(customerId));
+    }
+
+    private String requireTier(String tier) {
+        if (!weights.containsKey(tier)) {
+            throw new IllegalArgumentException("Unknown tier %s, expected one of %s".formatted(tier, weights.keySet()));
+        }
+        return tier;
+    }
+
+    private static String[] pair(String value, String format) {
+        var parts = value.trim().split(":");
+        if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+            throw new IllegalArgumentException("Expected %s, got %s".formatted(format, value));
+        }
+        return new String[]{parts[0].trim(), parts[1].trim()};
+    }
+}
@@ -0,0 +1,49 @@
+package com.taumaturgo.infrastructure.async;
+
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Where blocking work runs; VIRTUAL needs Java 21 at runtime and is looked up reflectively while the build targets 17.
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    // Owns its threads and is shut down by the caller.
+    public ExecutorService newWorkerPool(int platformThreads) {
+        return this == VIRTUAL ? VirtualThreads.newExecutor() : Executors.newFixedThreadPool(platformThreads);
+    }
+
+    // Shared for short blocking calls, never shut down.
+    public Executor blockingExecutor() {
+        return this == VIRTUAL ? VirtualThreads.SHARED : Infrastructure.getDefaultWorkerPool();
+    }
+
+    private static final class VirtualThreads {
+        private static final MethodHandle FACTORY = lookup();
+        private static final ExecutorService SHARED = newExecutor();
+
+        private static ExecutorService newExecutor() {
+            try {
+                return (ExecutorService) FACTORY.invokeExact();
+            } catch (Throwable throwable) {
+                throw new IllegalStateException("Failed to create a virtual thread executor", throwable);
+            }
+        }
+
+        private static MethodHandle lookup() {
+            try {
+                return MethodHandles.publicLookup()
+                                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            } catch (ReflectiveOperationException exception) {
+                throw new IllegalStateException("avatarforge.execution.mode=virtual needs Java 21, running on %s"
+                                                        .formatted(Runtime.version()), exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.taumaturgo.infrastructure.async;
+
+import com.taumaturgo.application.BlockingExecutor;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.Executor;
+
+@ApplicationScoped
+public class ExecutionModeBlockingExecutor implements BlockingExecutor {
+    private final Executor executor;
+
+    public ExecutionModeBlockingExecutor(@ConfigProperty(name = "avatarforge.execution.mode", defaultValue = "platform") ExecutionMode executionMode) {
+        this.executor = executionMode.blockingExecutor();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+}
@@ -0,0 +1,88 @@
+package com.taumaturgo.infrastructure.async;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.TimeUnit;
+
+// Grows while img2img latency stays within tolerance of its long-term average and shrinks in proportion past it.
+@ApplicationScoped
+public class GenerationConcurrencyLimit {
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_WINDOW = 100;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final Timer latency;
+    private double limit;
+    private double baselineNanos;
+    private int inFlight;
+
+    public GenerationConcurrencyLimit(MeterRegistry registry,
+                                      @ConfigProperty(name = "avatarforge.jobs.concurrency.initial-limit", defaultValue = "2") int initialLimit,
+                                      @ConfigProperty(name = "avatarforge.jobs.concurrency.min-limit", defaultValue = "1") int minLimit,
+                                      @ConfigProperty(name = "avatarforge.jobs.concurrency.max-limit", defaultValue = "32") int maxLimit,
+                                      @ConfigProperty(name = "avatarforge.jobs.concurrency.tolerance", defaultValue = "1.5") double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.latency = Timer.builder("jobs.generation.latency").register(registry);
+        Gauge.builder("jobs.generation.limit", this, GenerationConcurrencyLimit::limit).register(registry);
+        Gauge.builder("jobs.generation.in_flight", this, GenerationConcurrencyLimit::inFlight).register(registry);
+        TimeGauge.builder("jobs.generation.baseline_latency", this, TimeUnit.NANOSECONDS, GenerationConcurrencyLimit::baselineNanos)
+                 .register(registry);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public void onSample(long nanos) {
+        latency.record(nanos, TimeUnit.NANOSECONDS);
+        synchronized (this) {
+            baselineNanos = baselineNanos == 0 ? nanos : baselineNanos + (nanos - baselineNanos) * (2 / (BASELINE_WINDOW + 1));
+            var gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / nanos));
+            // an app-limited node says nothing about how far the backend can go
+            if (gradient >= 1.0 && inFlight < limit / 2) {
+                return;
+            }
+            var target = limit * gradient + Math.sqrt(limit);
+            limit = clamp(limit * (1 - SMOOTHING) + target * SMOOTHING);
+        }
+    }
+
+    public synchronized void onFailure() {
+        limit = clamp(limit * FAILURE_BACKOFF);
+    }
+
+    synchronized double limit() {
+        return limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized double baselineNanos() {
+        return baselineNanos;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
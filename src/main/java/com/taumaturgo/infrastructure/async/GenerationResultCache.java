@@ -0,0 +1,101 @@
+package com.taumaturgo.infrastructure.async;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taumaturgo.domain.models.GenerationResult;
+import com.taumaturgo.domain.models.ProfilePhotoJob;
+import com.taumaturgo.domain.repositories.GenerationResultRepository;
+import com.taumaturgo.infrastructure.rest.StableDiffusionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+// Reuses an earlier job's S3 objects for the same customer, upload bytes, img2img request and variants.
+@ApplicationScoped
+public class GenerationResultCache {
+    private final GenerationResultRepository repository;
+    private final StableDiffusionService stableDiffusionService;
+    private final ProfilePhotoVariants variants;
+    private final ObjectMapper mapper;
+    private final boolean enabled;
+    private final boolean allowRandomSeed;
+    private final Counter hits;
+    private final Counter misses;
+
+    public GenerationResultCache(GenerationResultRepository repository,
+                                 StableDiffusionService stableDiffusionService,
+                                 ProfilePhotoVariants variants,
+                                 ObjectMapper mapper,
+                                 MeterRegistry registry,
+                                 @ConfigProperty(name = "avatarforge.generation-cache.enabled", defaultValue = "true") boolean enabled,
+                                 @ConfigProperty(name = "avatarforge.generation-cache.allow-random-seed", defaultValue = "false") boolean allowRandomSeed) {
+        this.repository = repository;
+        this.stableDiffusionService = stableDiffusionService;
+        this.variants = variants;
+        this.mapper = mapper;
+        this.enabled = enabled;
+        this.allowRandomSeed = allowRandomSeed;
+        this.hits = Counter.builder("jobs.generation.cache").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("jobs.generation.cache").tag("result", "miss").register(registry);
+    }
+
+    // Hashes the raw upload only when a lookup can follow; nothing is decoded or normalized to get the key.
+    public Uni<Optional<String>> key(ProfilePhotoJob job) {
+        if (!applies(job)) {
+            return Uni.createFrom().item(Optional.empty());
+        }
+        return stableDiffusionService.contentHash(job.profilePhoto()).map(contentHash -> Optional.of(key(job, contentHash)));
+    }
+
+    // A random seed makes two generations differ, so it is only cached when a previous sample is acceptable.
+    private boolean applies(ProfilePhotoJob job) {
+        if (!enabled) {
+            return false;
+        }
+        var request = stableDiffusionService.request(job.profilePhoto());
+        return allowRandomSeed || (request.seed() != null && request.seed() >= 0);
+    }
+
+    private String key(ProfilePhotoJob job, String contentHash) {
+        try {
+            var request = stableDiffusionService.request(job.profilePhoto());
+            var parameters = mapper.writeValueAsString(request.withInitImages(List.of()));
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(job.customerId().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(parameters.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(variants.variants().toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(contentHash.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("Unable to compute generation cache key", exception);
+        }
+    }
+
+    public Optional<GenerationResult> find(String key) {
+        var result = repository.find(key);
+        (result.isPresent() ? hits : misses).increment();
+        return result;
+    }
+
+    // The job already succeeded, so a failed write only costs a future cache hit.
+    public void save(String key, GenerationResult result) {
+        try {
+            repository.save(key, result);
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warnf(exception, "Failed to cache generation result %s", key);
+        }
+    }
+}
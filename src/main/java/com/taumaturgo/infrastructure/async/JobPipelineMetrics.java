@@ -0,0 +1,125 @@
+package com.taumaturgo.infrastructure.async;
+
+import com.taumaturgo.domain.models.JobQueueStats;
+import com.taumaturgo.domain.models.ProcessingStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Every meter is registered up front and looked up by ordinal or tier, so recording allocates nothing.
+@ApplicationScoped
+public class JobPipelineMetrics {
+    public enum Stage {
+        CACHE,
+        GENERATION,
+        ORIGINAL_UPLOAD,
+        GENERATED_UPLOAD,
+        VARIANTS,
+        DATABASE,
+        TOTAL
+    }
+
+    // LOST is a result dropped because another node moved the job on.
+    public enum Outcome {
+        DONE,
+        FAILED,
+        LOST
+    }
+
+    private final Timer[] stageTimers = new Timer[Stage.values().length * 2];
+    private final AtomicInteger[] inStage = new AtomicInteger[Stage.values().length];
+    private final Counter[] finished = new Counter[Outcome.values().length];
+    private final Map<String, Timer> queueWait = new HashMap<>();
+    private final CustomerTiers tiers;
+    private final MeterRegistry registry;
+    private volatile long pending;
+    private volatile long oldestPendingEpochMillis;
+
+    public JobPipelineMetrics(MeterRegistry registry, CustomerTiers tiers) {
+        this.registry = registry;
+        this.tiers = tiers;
+        for (var stage : Stage.values()) {
+            var name = tag(stage);
+            stageTimers[stage.ordinal() * 2] = Timer.builder("jobs.stage").tag("stage", name).tag("outcome", "success").register(registry);
+            stageTimers[stage.ordinal() * 2 + 1] = Timer.builder("jobs.stage").tag("stage", name).tag("outcome", "failure").register(registry);
+            inStage[stage.ordinal()] = registry.gauge("jobs.in_flight", Tags.of("stage", name), new AtomicInteger());
+        }
+        for (var outcome : Outcome.values()) {
+            finished[outcome.ordinal()] = Counter.builder("jobs.finished").tag("outcome", tag(outcome)).register(registry);
+        }
+        for (var tier : tiers.tiers()) {
+            queueWait.put(tier, Timer.builder("jobs.queue.wait")
+                                     .tag("tier", tier)
+                                     .publishPercentileHistogram()
+                                     .minimumExpectedValue(Duration.ofMillis(10))
+                                     .maximumExpectedValue(Duration.ofHours(1))
+                                     .register(registry));
+        }
+        Gauge.builder("jobs.queue.depth", this, metrics -> metrics.pending).register(registry);
+        TimeGauge.builder("jobs.queue.oldest_age", this, TimeUnit.MILLISECONDS, JobPipelineMetrics::oldestPendingAgeMillis)
+                 .register(registry);
+    }
+
+    public long start(Stage stage) {
+        inStage[stage.ordinal()].incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void stop(Stage stage, long startedNanos, boolean success) {
+        inStage[stage.ordinal()].decrementAndGet();
+        stageTimers[stage.ordinal() * 2 + (success ? 0 : 1)].record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void claimed(String customerId, Instant createdAt) {
+        queueWait.get(tiers.tier(customerId)).record(Math.max(0, System.currentTimeMillis() - createdAt.toEpochMilli()), TimeUnit.MILLISECONDS);
+    }
+
+    public void finished(ProcessingStatus status) {
+        finished[(status == ProcessingStatus.DONE ? Outcome.DONE : Outcome.FAILED).ordinal()].increment();
+    }
+
+    public void lost() {
+        finished[Outcome.LOST.ordinal()].increment();
+    }
+
+    public void queue(JobQueueStats stats) {
+        pending = stats.pending();
+        oldestPendingEpochMillis = stats.oldestPendingAt() == null ? 0 : stats.oldestPendingAt().toEpochMilli();
+    }
+
+    public void monitor(String executor, ExecutorService pool) {
+        monitor(registry, executor, pool);
+    }
+
+    // Only pools with a queue report depth; a virtual thread per task never queues.
+    public static void monitor(MeterRegistry registry, String executor, ExecutorService pool) {
+        if (pool instanceof ThreadPoolExecutor threadPool) {
+            Gauge.builder("jobs.executor.queue", threadPool, tasks -> tasks.getQueue().size())
+                 .tag("executor", executor)
+                 .register(registry);
+        }
+    }
+
+    private double oldestPendingAgeMillis() {
+        var oldest = oldestPendingEpochMillis;
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
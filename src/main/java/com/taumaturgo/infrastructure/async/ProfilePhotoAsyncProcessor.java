@@ -2,103 +2,330 @@ package com.taumaturgo.infrastructure.async;
 
 import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
 import com.taumaturgo.application.events.ProfilePhotoJobEvents;
-import com.taumaturgo.domain.models.ProfilePhoto;
+import com.taumaturgo.domain.models.GenerationResult;
+import com.taumaturgo.domain.models.ProfilePhotoJob;
 import com.taumaturgo.domain.models.ProcessingStatus;
 import com.taumaturgo.domain.repositories.ProfilePhotoJobRepository;
 import com.taumaturgo.domain.repositories.ProfilePhotoPersistenceRepository;
 import com.taumaturgo.domain.repositories.ProfilePhotoStorageRepository;
+import com.taumaturgo.infrastructure.async.JobPipelineMetrics.Stage;
+import com.taumaturgo.infrastructure.cluster.ClusterNode;
 import com.taumaturgo.infrastructure.rest.StableDiffusionService;
-import com.taumaturgo.infrastructure.async.WebhookNotifier;
-import io.smallrye.common.annotation.Blocking;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @ApplicationScoped
 public class ProfilePhotoAsyncProcessor {
-    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Semaphore wakeUp = new Semaphore(0);
     private final ProfilePhotoJobRepository jobRepository;
     private final ProfilePhotoPersistenceRepository persistenceRepository;
     private final ProfilePhotoStorageRepository storageRepository;
     private final StableDiffusionService stableDiffusionService;
     private final ProfilePhotoJobEvents events;
     private final WebhookNotifier webhookNotifier;
+    private final ClusterNode node;
+    private final GenerationConcurrencyLimit concurrencyLimit;
+    private final GenerationResultCache resultCache;
+    private final ProfilePhotoVariants variants;
+    private final JobPipelineMetrics metrics;
+    private ExecutorService dispatcher;
+    ExecutorService database;
+    private ScheduledExecutorService housekeeping;
+    private volatile boolean running;
+
+    @ConfigProperty(name = "avatarforge.jobs.lease", defaultValue = "PT2M")
+    Duration lease;
+
+    @ConfigProperty(name = "avatarforge.jobs.poll-interval", defaultValue = "PT5S")
+    Duration pollInterval;
+
+    @ConfigProperty(name = "avatarforge.jobs.max-attempts", defaultValue = "3")
+    int maxAttempts;
+
+    @ConfigProperty(name = "avatarforge.jobs.database-threads", defaultValue = "4")
+    int databaseThreads;
+
+    @ConfigProperty(name = "avatarforge.execution.mode", defaultValue = "platform")
+    ExecutionMode executionMode;
+
+    @ConfigProperty(name = "avatarforge.jobs.metrics.queue-sample-interval", defaultValue = "PT10S")
+    Duration queueSampleInterval;
 
     public ProfilePhotoAsyncProcessor(ProfilePhotoJobRepository jobRepository,
                                       ProfilePhotoPersistenceRepository persistenceRepository,
                                       ProfilePhotoStorageRepository storageRepository,
                                       StableDiffusionService stableDiffusionService,
                                       ProfilePhotoJobEvents events,
-                                      WebhookNotifier webhookNotifier) {
+                                      WebhookNotifier webhookNotifier,
+                                      ClusterNode node,
+                                      GenerationConcurrencyLimit concurrencyLimit,
+                                      GenerationResultCache resultCache,
+                                      ProfilePhotoVariants variants,
+                                      JobPipelineMetrics metrics) {
         this.jobRepository = jobRepository;
         this.persistenceRepository = persistenceRepository;
         this.storageRepository = storageRepository;
         this.stableDiffusionService = stableDiffusionService;
         this.events = events;
         this.webhookNotifier = webhookNotifier;
+        this.node = node;
+        this.concurrencyLimit = concurrencyLimit;
+        this.resultCache = resultCache;
+        this.variants = variants;
+        this.metrics = metrics;
+    }
+
+    void start(@Observes StartupEvent event) {
+        running = true;
+        database = executionMode.newWorkerPool(databaseThreads);
+        metrics.monitor("database", database);
+        dispatcher = Executors.newSingleThreadExecutor();
+        dispatcher.submit(this::dispatch);
+
+        var renewEvery = Math.max(1, lease.toMillis() / 3);
+        housekeeping = Executors.newSingleThreadScheduledExecutor();
+        housekeeping.scheduleAtFixedRate(this::renewLeases, renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+        housekeeping.scheduleWithFixedDelay(this::sampleQueueSafely, 0, queueSampleInterval.toMillis(), TimeUnit.MILLISECONDS);
     }
 
     public void enqueue(String jobId) {
-        executor.submit(() -> process(jobId));
+        wakeUp.release();
+    }
+
+    // Claims jobs only while the adaptive limit has room, so a busy GPU leaves work in the queue for other nodes.
+    void dispatch() {
+        while (running) {
+            try {
+                if (!concurrencyLimit.tryAcquire()) {
+                    wakeUp.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                var claimed = claimNext();
+                if (claimed.isPresent()) {
+                    run(claimed.get());
+                    continue;
+                }
+                concurrencyLimit.release();
+                wakeUp.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception exception) {
+                concurrencyLimit.release();
+                Logger.getLogger(getClass()).error("Error claiming next job", exception);
+                sleepQuietly(pollInterval);
+            }
+        }
+    }
+
+    @ActivateRequestContext
+    Optional<ProfilePhotoJob> claimNext() {
+        return jobRepository.claimNext(node.id(), lease);
+    }
+
+    private void run(ProfilePhotoJob job) {
+        process(job).onTermination()
+                    .invoke(() -> {
+                        concurrencyLimit.release();
+                        wakeUp.release();
+                    })
+                    .subscribe()
+                    .with(ignored -> {
+                    }, failure -> Logger.getLogger(getClass()).error("Error finishing job %s".formatted(job.id()), failure));
+    }
+
+    // No step holds a thread while Stable Diffusion or S3 work; database calls borrow one from the database pool.
+    // The original stays in the shared spool unless this node recorded the outcome: a lost job, or a failed transition,
+    // leaves it for whichever node claims the job next.
+    Uni<Void> process(ProfilePhotoJob job) {
+        var originalPath = Path.of(job.profilePhoto().originalPhoto());
+        var input = new AtomicReference<Path>();
+        var generated = new AtomicReference<Path>();
+        return timed(Stage.TOTAL, generateOrReuse(job, input, generated))
+                  .onFailure()
+                  .recoverWithUni(exception -> {
+                      Logger.getLogger(getClass()).error("Error processing job %s".formatted(job.id()), exception);
+                      return timed(Stage.DATABASE, onDatabase(() -> fail(job, exception.getMessage())));
+                  })
+                  .onItem()
+                  .invoke(done -> done.ifPresentOrElse(finished -> {
+                      deleteSilently(originalPath);
+                      finish(finished);
+                  }, () -> lost(job)))
+                  .onTermination()
+                  .invoke(() -> {
+                      if (!originalPath.equals(input.get())) {
+                          deleteSilently(input.get());
+                      }
+                      deleteSilently(generated.get());
+                  })
+                  .replaceWithVoid();
+    }
+
+    // The cache key comes from the raw upload, so a hit completes without decoding or normalizing anything.
+    private Uni<Optional<ProfilePhotoJob>> generateOrReuse(ProfilePhotoJob job, AtomicReference<Path> input, AtomicReference<Path> generated) {
+        return Uni.createFrom().deferred(() -> {
+            events.publish(ProfilePhotoJobStatus.fromDomain(job));
+            // later claims would count the time spent on earlier attempts as waiting
+            if (job.attempts() == 1) {
+                metrics.claimed(job.customerId(), job.createdAt());
+            }
+            if (job.attempts() > maxAttempts) {
+                throw new IllegalStateException("Job abandoned after %d attempts".formatted(maxAttempts));
+            }
+            return resultCache.key(job)
+                              .chain(cacheKey -> timed(Stage.CACHE, onDatabase(() -> cacheKey.flatMap(resultCache::find)))
+                                      .chain(cached -> cached.isPresent()
+                                              ? timed(Stage.DATABASE, onDatabase(() -> complete(job, cached.get())))
+                                              : stableDiffusionService.prepare(job.profilePhoto())
+                                                                      .invoke(input::set)
+                                                                      .chain(prepared -> generateAndStore(job, cacheKey, prepared, generated))));
+        });
+    }
+
+    // the original only depends on the upload, so it goes to S3 while the GPU is busy; the generated photo and its
+    // variants are uploaded side by side once it is back
+    private Uni<Optional<ProfilePhotoJob>> generateAndStore(ProfilePhotoJob job, Optional<String> cacheKey, Path input, AtomicReference<Path> generated) {
+        var generationStarted = System.nanoTime();
+        var generation = stableDiffusionService.generate(job.profilePhoto(), input)
+                                               .onItem()
+                                               .invoke(generated::set)
+                                               .onItemOrFailure()
+                                               .invoke((path, failure) -> sample(generationStarted, failure));
+        var generatedS3 = timed(Stage.GENERATION, generation)
+                .chain(path -> Uni.combine()
+                                  .all()
+                                  .unis(timed(Stage.GENERATED_UPLOAD, storageRepository.store(job.customerId(), job.profilePhoto(), path)),
+                                        timed(Stage.VARIANTS, variants.store(job, path)))
+                                  .asTuple());
+        return Uni.combine()
+                  .all()
+                  .unis(timed(Stage.ORIGINAL_UPLOAD, storageRepository.store(job.customerId(), job.profilePhoto())), generatedS3)
+                  .combinedWith((original, generatedUrls) -> new GenerationResult(original, generatedUrls.getItem1(), generatedUrls.getItem2()))
+                  .chain(result -> timed(Stage.DATABASE, onDatabase(() -> {
+                      var done = complete(job, result);
+                      if (done.isPresent()) {
+                          cacheKey.ifPresent(key -> resultCache.save(key, result));
+                      }
+                      return done;
+                  })));
     }
 
-    @Blocking
-    void process(String jobId) {
-        var optionalJob = jobRepository.findById(jobId);
-        if (optionalJob.isEmpty()) {
-            return;
+    private <T> Uni<T> onDatabase(Supplier<T> work) {
+        return Uni.createFrom().item(work).runSubscriptionOn(database);
+    }
+
+    // A cancelled stage counts as a failure, so the in-flight gauge always comes back down.
+    private <T> Uni<T> timed(Stage stage, Uni<T> work) {
+        return Uni.createFrom().deferred(() -> {
+            var started = metrics.start(stage);
+            return work.onTermination().invoke((item, failure, cancelled) -> metrics.stop(stage, started, failure == null && !cancelled));
+        });
+    }
+
+    private void sample(long startedNanos, Throwable failure) {
+        if (failure == null) {
+            concurrencyLimit.onSample(System.nanoTime() - startedNanos);
+        } else {
+            concurrencyLimit.onFailure();
         }
+    }
+
+    @Transactional
+    Optional<ProfilePhotoJob> complete(ProfilePhotoJob job, GenerationResult result) {
+        var done = jobRepository.transition(job,
+                                            ProcessingStatus.DONE,
+                                            result.originalPhotoUrl(),
+                                            result.generatedPhotoUrl(),
+                                            result.variants(),
+                                            null);
+        done.ifPresent(completed -> {
+            persistenceRepository.save(completed.customerId(), completed.profilePhoto());
+            webhookNotifier.enqueue(completed);
+        });
+        return done;
+    }
+
+    @Transactional
+    Optional<ProfilePhotoJob> fail(ProfilePhotoJob job, String error) {
+        var failed = jobRepository.transition(job, ProcessingStatus.FAILED, null, null, null, error);
+        failed.ifPresent(webhookNotifier::enqueue);
+        return failed;
+    }
+
+    private void finish(ProfilePhotoJob job) {
+        metrics.finished(job.status());
+        var status = ProfilePhotoJobStatus.fromDomain(job);
+        events.publish(status);
+        webhookNotifier.wakeUp(job);
+    }
+
+    private void lost(ProfilePhotoJob job) {
+        metrics.lost();
+        Logger.getLogger(getClass()).warnf("Job %s moved past version %d while %s was processing it, dropping the result",
+                                           job.id(), job.version(), node.id());
+    }
 
-        var job = optionalJob.get();
-        Path originalPath = Path.of(job.profilePhoto().originalPhoto());
+    private void renewLeases() {
         try {
-            jobRepository.updateStatus(jobId, ProcessingStatus.PROCESSING, null);
-            publish(jobId);
-
-            var generated = stableDiffusionService.generate(job.profilePhoto()).await().indefinitely();
-
-            var originalS3 = storageRepository.store(job.customerId(), job.profilePhoto()).await().indefinitely();
-
-            var generatedS3 = storageRepository.store(job.customerId(),
-                                                      job.profilePhoto(),
-                                                      generated).await().indefinitely();
-
-            persistenceRepository.save(job.customerId(),
-                                       new ProfilePhoto(job.profilePhoto().id(),
-                                                        originalS3,
-                                                        generatedS3));
-            jobRepository.updateResult(jobId, originalS3, generatedS3);
-            jobRepository.updateStatus(jobId, ProcessingStatus.DONE, null);
-            publish(jobId);
-            jobRepository.findById(jobId)
-                         .map(ProfilePhotoJobStatus::fromDomain)
-                         .ifPresent(status -> webhookNotifier.notify(job.callbackUrl(), status));
+            jobRepository.renewLeases(node.id(), lease);
         } catch (Exception exception) {
-            Logger.getLogger(getClass()).error("Error processing job %s".formatted(jobId), exception);
-            jobRepository.updateStatus(jobId, ProcessingStatus.FAILED, exception.getMessage());
-            publish(jobId);
-            jobRepository.findById(jobId)
-                         .map(ProfilePhotoJobStatus::fromDomain)
-                         .ifPresent(status -> webhookNotifier.notify(job.callbackUrl(), status));
-        } finally {
-            deleteSilently(originalPath);
+            Logger.getLogger(getClass()).warnf(exception, "Failed to renew job leases for %s", node.id());
         }
     }
 
-    private void publish(String jobId) {
-        jobRepository.findById(jobId)
-                     .map(ProfilePhotoJobStatus::fromDomain)
-                     .ifPresent(events::publish);
+    @ActivateRequestContext
+    void sampleQueue() {
+        metrics.queue(jobRepository.queueStats());
+    }
+
+    private void sampleQueueSafely() {
+        try {
+            sampleQueue();
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warn("Failed to sample the job queue", exception);
+        }
     }
 
     @PreDestroy
     void shutdown() {
-        executor.shutdown();
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+        if (database != null) {
+            database.shutdownNow();
+        }
+        if (housekeeping != null) {
+            housekeeping.shutdownNow();
+        }
+    }
+
+    private void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private void deleteSilently(Path path) {
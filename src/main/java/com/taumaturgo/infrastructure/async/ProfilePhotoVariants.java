@@ -0,0 +1,108 @@
+package com.taumaturgo.infrastructure.async;
+
+import com.taumaturgo.domain.models.ProfilePhotoJob;
+import com.taumaturgo.domain.repositories.ProfilePhotoStorageRepository;
+import com.taumaturgo.infrastructure.imaging.ImageVariant;
+import com.taumaturgo.infrastructure.imaging.ImageVariants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Renders each configured variant on the CPU pool and uploads it next to the generated avatar as soon as it is ready.
+@ApplicationScoped
+public class ProfilePhotoVariants {
+    private final ProfilePhotoStorageRepository storageRepository;
+    private final List<ImageVariant> variants;
+    private final Map<String, Timer> durations = new LinkedHashMap<>();
+    private final ExecutorService cpu;
+
+    public ProfilePhotoVariants(ProfilePhotoStorageRepository storageRepository,
+                                MeterRegistry registry,
+                                @ConfigProperty(name = "avatarforge.variants.enabled", defaultValue = "true") boolean enabled,
+                                @ConfigProperty(name = "avatarforge.variants.specs", defaultValue = "jpeg-64:jpeg:64,jpeg-256:jpeg:256") List<String> specs,
+                                @ConfigProperty(name = "avatarforge.variants.threads", defaultValue = "2") int threads) {
+        this.storageRepository = storageRepository;
+        this.variants = enabled ? specs.stream().map(ImageVariant::parse).toList() : List.of();
+        this.variants.forEach(variant -> durations.put(variant.name(), Timer.builder("profile_photo.variants")
+                                                                           .tag("variant", variant.name())
+                                                                           .register(registry)));
+        this.cpu = Executors.newFixedThreadPool(threads);
+        JobPipelineMetrics.monitor(registry, "variants", cpu);
+    }
+
+    public List<ImageVariant> variants() {
+        return variants;
+    }
+
+    // Resolves to variant name -> URL once every upload finished; the first failure fails the whole set.
+    public Uni<Map<String, String>> store(ProfilePhotoJob job, Path generatedPhoto) {
+        if (variants.isEmpty()) {
+            return Uni.createFrom().item(Map.of());
+        }
+        return Uni.join()
+                  .all(variants.stream().map(variant -> store(job, generatedPhoto, variant)).toList())
+                  .andFailFast()
+                  .onItem()
+                  .transform(urls -> {
+                      var stored = new LinkedHashMap<String, String>();
+                      for (int i = 0; i < variants.size(); i++) {
+                          stored.put(variants.get(i).name(), urls.get(i));
+                      }
+                      return stored;
+                  });
+    }
+
+    private Uni<String> store(ProfilePhotoJob job, Path generatedPhoto, ImageVariant variant) {
+        var rendered = new AtomicReference<Path>();
+        return Uni.createFrom()
+                  .item(() -> durations.get(variant.name()).record(() -> render(generatedPhoto, variant)))
+                  .runSubscriptionOn(cpu)
+                  .onItem()
+                  .invoke(rendered::set)
+                  .chain(path -> storageRepository.store(job.customerId(), job.profilePhoto(), variant.name(), path, variant.contentType()))
+                  .onTermination()
+                  .invoke(() -> deleteSilently(rendered.get()));
+    }
+
+    private Path render(Path generatedPhoto, ImageVariant variant) {
+        Path target = null;
+        try {
+            target = Files.createTempFile("profile-photo-variant-", "." + variant.format());
+            ImageVariants.render(generatedPhoto, target, variant);
+            return target;
+        } catch (IOException exception) {
+            deleteSilently(target);
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void deleteSilently(Path path) {
+        try {
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warnf(exception, "Failed to cleanup temp file %s", path);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cpu.shutdownNow();
+    }
+}
@@ -0,0 +1,301 @@
+package com.taumaturgo.infrastructure.async;
+
+import com.taumaturgo.domain.models.WebhookDelivery;
+import com.taumaturgo.domain.repositories.WebhookDeliveryRepository;
+import com.taumaturgo.infrastructure.cluster.ClusterNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Drains the webhook_deliveries outbox under a lease, within max-in-flight overall and max-per-host per host.
+@ApplicationScoped
+public class WebhookDispatcher {
+    private final WebhookDeliveryRepository repository;
+    private final ClusterNode node;
+    private final HttpClient client;
+    private final Semaphore inFlight;
+    // Requests in flight per host; a host leaves the map with its last request, so it never outgrows max-in-flight.
+    final Map<String, Integer> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter abandoned;
+    private ScheduledExecutorService scheduler;
+
+    @ConfigProperty(name = "avatarforge.webhooks.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "avatarforge.webhooks.poll-interval", defaultValue = "PT1S")
+    Duration pollInterval;
+
+    @ConfigProperty(name = "avatarforge.webhooks.max-per-host", defaultValue = "4")
+    int maxPerHost;
+
+    @ConfigProperty(name = "avatarforge.webhooks.batch.max-size", defaultValue = "1")
+    int batchSize;
+
+    @ConfigProperty(name = "avatarforge.webhooks.request-timeout", defaultValue = "PT10S")
+    Duration requestTimeout;
+
+    @ConfigProperty(name = "avatarforge.webhooks.lease", defaultValue = "PT1M")
+    Duration lease;
+
+    @ConfigProperty(name = "avatarforge.webhooks.max-attempts", defaultValue = "8")
+    int maxAttempts;
+
+    @ConfigProperty(name = "avatarforge.webhooks.initial-backoff", defaultValue = "PT1S")
+    Duration initialBackoff;
+
+    @ConfigProperty(name = "avatarforge.webhooks.max-backoff", defaultValue = "PT10M")
+    Duration maxBackoff;
+
+    @ConfigProperty(name = "avatarforge.webhooks.retention", defaultValue = "P7D")
+    Duration retention;
+
+    @Inject
+    public WebhookDispatcher(WebhookDeliveryRepository repository,
+                             ClusterNode node,
+                             MeterRegistry registry,
+                             @ConfigProperty(name = "avatarforge.webhooks.connect-timeout", defaultValue = "PT5S") Duration connectTimeout,
+                             @ConfigProperty(name = "avatarforge.webhooks.max-in-flight", defaultValue = "64") int maxInFlight) {
+        this(repository, node, registry, HttpClient.newBuilder().connectTimeout(connectTimeout).build(), maxInFlight);
+    }
+
+    WebhookDispatcher(WebhookDeliveryRepository repository, ClusterNode node, MeterRegistry registry, HttpClient client, int maxInFlight) {
+        this.repository = repository;
+        this.node = node;
+        this.client = client;
+        this.inFlight = new Semaphore(maxInFlight);
+        registry.gauge("webhooks.queue.depth", queueDepth);
+        registry.gauge("webhooks.in_flight", inFlight, permits -> maxInFlight - permits.availablePermits());
+        this.succeeded = Timer.builder("webhooks.requests").tag("outcome", "success").register(registry);
+        this.failed = Timer.builder("webhooks.requests").tag("outcome", "failure").register(registry);
+        this.delivered = Counter.builder("webhooks.deliveries").tag("outcome", "delivered").register(registry);
+        this.retried = Counter.builder("webhooks.deliveries").tag("outcome", "retried").register(registry);
+        this.abandoned = Counter.builder("webhooks.deliveries").tag("outcome", "abandoned").register(registry);
+    }
+
+    void start(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::pollSafely, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purgeSafely, 1, 60, TimeUnit.MINUTES);
+    }
+
+    // Called after a delivery was queued, so it goes out without waiting for the next poll.
+    public void wakeUp() {
+        Optional.ofNullable(scheduler).ifPresent(executor -> executor.execute(this::pollSafely));
+    }
+
+    @ActivateRequestContext
+    void poll() {
+        var capacity = inFlight.availablePermits();
+        if (capacity > 0) {
+            var claimed = repository.claimDue(node.id(), lease, capacity * batchSize);
+            claimed.stream()
+                   .collect(Collectors.groupingBy(WebhookDelivery::callbackUrl, LinkedHashMap::new, Collectors.toList()))
+                   .forEach(this::dispatch);
+        }
+        queueDepth.set(repository.pending());
+    }
+
+    private void dispatch(String callbackUrl, List<WebhookDelivery> deliveries) {
+        URI uri;
+        try {
+            uri = URI.create(callbackUrl);
+        } catch (IllegalArgumentException exception) {
+            abandon(deliveries, "Invalid callback URL");
+            return;
+        }
+        for (int from = 0; from < deliveries.size(); from += batchSize) {
+            send(uri, deliveries.subList(from, Math.min(from + batchSize, deliveries.size())));
+        }
+    }
+
+    private void send(URI uri, List<WebhookDelivery> batch) {
+        var host = String.valueOf(uri.getHost());
+        if (!inFlight.tryAcquire()) {
+            repository.release(node.id(), ids(batch));
+            return;
+        }
+        if (!tryAcquireHost(host)) {
+            inFlight.release();
+            repository.release(node.id(), ids(batch));
+            return;
+        }
+        var started = System.nanoTime();
+        try {
+            client.sendAsync(request(uri, batch), HttpResponse.BodyHandlers.discarding())
+                  .whenComplete((response, failure) -> {
+                      releaseHost(host);
+                      inFlight.release();
+                      settleSafely(batch, response, failure, System.nanoTime() - started);
+                  });
+        } catch (RuntimeException exception) {
+            releaseHost(host);
+            inFlight.release();
+            abandon(batch, exception.getMessage());
+        }
+    }
+
+    private boolean tryAcquireHost(String host) {
+        var acquired = new AtomicBoolean();
+        hosts.compute(host, (ignored, requests) -> {
+            var current = requests == null ? 0 : requests;
+            if (current >= maxPerHost) {
+                return requests;
+            }
+            acquired.set(true);
+            return current + 1;
+        });
+        return acquired.get();
+    }
+
+    private void releaseHost(String host) {
+        hosts.computeIfPresent(host, (ignored, requests) -> requests > 1 ? requests - 1 : null);
+    }
+
+    private HttpRequest request(URI uri, List<WebhookDelivery> batch) {
+        var body = batchSize > 1
+                ? batch.stream().map(WebhookDelivery::payload).collect(Collectors.joining(",", "[", "]"))
+                : batch.get(0).payload();
+        return HttpRequest.newBuilder(uri)
+                          .timeout(requestTimeout)
+                          .header("Content-Type", "application/json")
+                          .POST(HttpRequest.BodyPublishers.ofString(body))
+                          .build();
+    }
+
+    private void settleSafely(List<WebhookDelivery> batch, HttpResponse<Void> response, Throwable failure, long elapsedNanos) {
+        try {
+            settle(batch, response, failure, elapsedNanos);
+        } catch (Exception exception) {
+            // the lease runs out and the batch is claimed again
+            Logger.getLogger(getClass()).warnf(exception, "Failed to record the outcome of %d webhook deliveries", batch.size());
+        }
+    }
+
+    @ActivateRequestContext
+    void settle(List<WebhookDelivery> batch, HttpResponse<Void> response, Throwable failure, long elapsedNanos) {
+        if (failure == null && response.statusCode() / 100 == 2) {
+            succeeded.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            repository.delivered(node.id(), ids(batch));
+            delivered.increment(batch.size());
+            return;
+        }
+        failed.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        var error = failure != null ? failure.toString() : "HTTP " + response.statusCode();
+        if (response != null && permanent(response.statusCode())) {
+            abandon(batch, error);
+            return;
+        }
+        var giveUp = new ArrayList<WebhookDelivery>();
+        for (var delivery : batch) {
+            var attempt = delivery.attempts() + 1;
+            if (attempt >= maxAttempts) {
+                giveUp.add(delivery);
+            } else {
+                repository.retry(node.id(), delivery.id(), Instant.now().plus(delay(attempt, response)), error);
+                retried.increment();
+            }
+        }
+        abandon(giveUp, error);
+    }
+
+    private boolean permanent(int status) {
+        return status / 100 == 4 && status != 408 && status != 429;
+    }
+
+    // Full exponential step, then a random point in its upper half, so receivers that failed together spread out.
+    Duration delay(int attempt, HttpResponse<Void> response) {
+        var exponential = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 30));
+        var capped = exponential.compareTo(maxBackoff) > 0 || exponential.isNegative() ? maxBackoff : exponential;
+        var half = capped.toMillis() / 2;
+        var jittered = Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+        return retryAfter(response).filter(requested -> requested.compareTo(jittered) > 0).orElse(jittered);
+    }
+
+    private Optional<Duration> retryAfter(HttpResponse<Void> response) {
+        if (response == null) {
+            return Optional.empty();
+        }
+        return response.headers()
+                       .firstValue("Retry-After")
+                       .flatMap(value -> {
+                           try {
+                               return Optional.of(Duration.ofSeconds(Long.parseLong(value.trim())));
+                           } catch (NumberFormatException exception) {
+                               return Optional.empty();
+                           }
+                       })
+                       .map(requested -> requested.compareTo(maxBackoff) > 0 ? maxBackoff : requested);
+    }
+
+    private void abandon(List<WebhookDelivery> deliveries, String error) {
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        repository.abandon(node.id(), ids(deliveries), error);
+        abandoned.increment(deliveries.size());
+        Logger.getLogger(getClass()).warnf("Gave up on %d webhook deliveries to %s: %s",
+                                           deliveries.size(), deliveries.get(0).callbackUrl(), error);
+    }
+
+    private List<Long> ids(List<WebhookDelivery> deliveries) {
+        return deliveries.stream().map(WebhookDelivery::id).toList();
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warn("Failed to poll the webhook outbox", exception);
+        }
+    }
+
+    private void purgeSafely() {
+        try {
+            repository.deleteAbandonedBefore(Instant.now().minus(retention));
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warn("Failed to purge abandoned webhook deliveries", exception);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        Optional.ofNullable(scheduler).ifPresent(ScheduledExecutorService::shutdownNow);
+    }
+}
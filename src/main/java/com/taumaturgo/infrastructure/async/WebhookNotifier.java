@@ -1,50 +1,48 @@
 package com.taumaturgo.infrastructure.async;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.domain.models.ProfilePhotoJob;
+import com.taumaturgo.domain.repositories.WebhookDeliveryRepository;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.inject.Inject;
-import org.jboss.logging.Logger;
-
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import jakarta.transaction.Transactional;
 
+// Queues the callback in the webhook_deliveries outbox; WebhookDispatcher sends it and owns retries.
 @ApplicationScoped
 public class WebhookNotifier {
-    private final HttpClient client;
+    private final WebhookDeliveryRepository repository;
+    private final WebhookDispatcher dispatcher;
     private final ObjectMapper mapper;
 
-    @Inject
-    public WebhookNotifier(ObjectMapper mapper) {
-        this(HttpClient.newHttpClient(), mapper);
-    }
-
-    WebhookNotifier(HttpClient client, ObjectMapper mapper) {
-        this.client = client;
+    public WebhookNotifier(WebhookDeliveryRepository repository, WebhookDispatcher dispatcher, ObjectMapper mapper) {
+        this.repository = repository;
+        this.dispatcher = dispatcher;
         this.mapper = mapper;
     }
 
-    public void notify(String callbackUrl, ProfilePhotoJobStatus status) {
-        if (callbackUrl == null || callbackUrl.isBlank()) {
+    // Joins the transaction of the terminal transition, so the callback is queued exactly when the job finishes;
+    // a failure here rolls the transition back and the job is retried.
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void enqueue(ProfilePhotoJob job) {
+        if (!hasCallback(job)) {
             return;
         }
         try {
-            var body = mapper.writeValueAsString(status);
-            var request = HttpRequest.newBuilder()
-                                     .uri(URI.create(callbackUrl))
-                                     .header("Content-Type", "application/json")
-                                     .POST(HttpRequest.BodyPublishers.ofString(body))
-                                     .build();
-            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
-                  .exceptionally(throwable -> {
-                      Logger.getLogger(getClass())
-                            .warnf(throwable, "Failed to notify callback %s", callbackUrl);
-                      return null;
-                  });
-        } catch (Exception exception) {
-            Logger.getLogger(getClass()).warnf(exception, "Failed to build callback request for %s", callbackUrl);
+            repository.enqueue(job.callbackUrl(), job.id(), mapper.writeValueAsString(ProfilePhotoJobStatus.fromDomain(job)));
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Unable to serialize callback for job %s".formatted(job.id()), exception);
+        }
+    }
+
+    // Only after the transaction that enqueued the callback has committed; the dispatcher's poll covers a missed call.
+    public void wakeUp(ProfilePhotoJob job) {
+        if (hasCallback(job)) {
+            dispatcher.wakeUp();
         }
     }
+
+    private static boolean hasCallback(ProfilePhotoJob job) {
+        return job.callbackUrl() != null && !job.callbackUrl().isBlank();
+    }
 }
@@ -0,0 +1,166 @@
+package com.taumaturgo.infrastructure.cluster;
+
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.application.events.ProfilePhotoJobEvents;
+import com.taumaturgo.domain.models.ProfilePhotoJobEvent;
+import com.taumaturgo.domain.repositories.ProfilePhotoJobEventRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Tails the profile_photo_job_events outbox and publishes transitions committed by other nodes on the local bus.
+@ApplicationScoped
+public class ClusterEventRelay {
+    private final ProfilePhotoJobEventRepository eventRepository;
+    private final ProfilePhotoJobEvents events;
+    private final ClusterNode node;
+    // AUTO_INCREMENT values become visible in commit order, so a sequence below the cursor may still show up;
+    // each one is kept with the time it was first found missing until it does, or retention would have purged it.
+    private final TreeMap<Long, Instant> missing = new TreeMap<>();
+    private ScheduledExecutorService scheduler;
+    private long cursor;
+
+    @ConfigProperty(name = "avatarforge.events.relay.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "avatarforge.events.relay.poll-interval", defaultValue = "PT0.25S")
+    Duration pollInterval;
+
+    @ConfigProperty(name = "avatarforge.events.relay.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "avatarforge.events.relay.gap-timeout", defaultValue = "PT5S")
+    Duration gapTimeout;
+
+    @ConfigProperty(name = "avatarforge.events.relay.retention", defaultValue = "PT1H")
+    Duration retention;
+
+    public ClusterEventRelay(ProfilePhotoJobEventRepository eventRepository, ProfilePhotoJobEvents events, ClusterNode node) {
+        this.eventRepository = eventRepository;
+        this.events = events;
+        this.node = node;
+    }
+
+    void start(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.execute(this::initialize);
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purgeSafely, 1, 1, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(this::recheckSkippedSafely, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @ActivateRequestContext
+    void initialize() {
+        try {
+            cursor = eventRepository.lastSequence();
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warn("Failed to read the job event outbox position, starting from the beginning", exception);
+        }
+    }
+
+    @ActivateRequestContext
+    void poll() {
+        poll(Instant.now());
+    }
+
+    // Only rows past the cursor are read, plus the gaps younger than gap-timeout.
+    void poll(Instant now) {
+        for (var event : eventRepository.findAfter(cursor, batchSize)) {
+            for (var sequence = cursor + 1; sequence < event.sequence(); sequence++) {
+                missing.put(sequence, now);
+            }
+            cursor = event.sequence();
+            deliver(event);
+        }
+        fill(gaps(now, true));
+    }
+
+    @ActivateRequestContext
+    void recheckSkipped() {
+        recheckSkipped(Instant.now());
+    }
+
+    // Gaps past gap-timeout are most likely rolled back inserts, so they are only looked up once a minute.
+    void recheckSkipped(Instant now) {
+        missing.values().removeIf(since -> Duration.between(since, now).compareTo(retention) >= 0);
+        fill(gaps(now, false));
+    }
+
+    long cursor() {
+        return cursor;
+    }
+
+    Map<Long, Instant> missing() {
+        return missing;
+    }
+
+    private List<Long> gaps(Instant now, boolean recent) {
+        return missing.entrySet()
+                      .stream()
+                      .filter(gap -> Duration.between(gap.getValue(), now).compareTo(gapTimeout) < 0 == recent)
+                      .map(Map.Entry::getKey)
+                      .toList();
+    }
+
+    private void fill(List<Long> gaps) {
+        for (int from = 0; from < gaps.size(); from += batchSize) {
+            for (var event : eventRepository.findBySequences(gaps.subList(from, Math.min(from + batchSize, gaps.size())))) {
+                if (missing.remove(event.sequence()) != null) {
+                    deliver(event);
+                }
+            }
+        }
+    }
+
+    private void deliver(ProfilePhotoJobEvent event) {
+        if (!node.id().equals(event.originNode())) {
+            events.publish(ProfilePhotoJobStatus.fromEvent(event));
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warn("Failed to poll the job event outbox", exception);
+        }
+    }
+
+    private void recheckSkippedSafely() {
+        try {
+            recheckSkipped();
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warn("Failed to recheck skipped job events", exception);
+        }
+    }
+
+    private void purgeSafely() {
+        try {
+            eventRepository.deleteOlderThan(Instant.now().minus(retention));
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warn("Failed to purge the job event outbox", exception);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        Optional.ofNullable(scheduler).ifPresent(ScheduledExecutorService::shutdownNow);
+    }
+}
@@ -0,0 +1,32 @@
+package com.taumaturgo.infrastructure.cluster;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.net.InetAddress;
+import java.util.Optional;
+import java.util.UUID;
+
+@ApplicationScoped
+public class ClusterNode {
+    private final String id;
+
+    @Inject
+    public ClusterNode(@ConfigProperty(name = "avatarforge.node-id") Optional<String> id) {
+        this.id = id.orElseGet(() -> hostname() + "-" + UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    public String id() {
+        return id;
+    }
+
+    private static String hostname() {
+        try {
+            var hostname = InetAddress.getLocalHost().getHostName();
+            return hostname.length() > 80 ? hostname.substring(0, 80) : hostname;
+        } catch (Exception exception) {
+            return "node";
+        }
+    }
+}
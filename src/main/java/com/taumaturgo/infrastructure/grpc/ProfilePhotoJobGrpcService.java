@@ -33,14 +33,13 @@ public class ProfilePhotoJobGrpcService extends MutinyProfilePhotoJobGrpcGrpc.Pr
     @Override
     public Uni<JobStatusResponse> getStatus(JobStatusRequest request) {
         var waitSeconds = Math.max(0, request.getWaitSeconds());
-        return Uni.createFrom()
-                  .item(() -> waitSeconds > 0
-                          ? statusService.waitForCompletion(request.getJobId(), Duration.ofSeconds(waitSeconds))
-                          : statusService.find(request.getJobId()))
-                  .onItem()
-                  .transform(this::toProto)
-                  .onFailure(NoSuchElementException.class)
-                  .transform(throwable -> notFound("Job %s not found".formatted(request.getJobId())));
+        var status = waitSeconds > 0
+                ? statusService.waitForCompletion(request.getJobId(), Duration.ofSeconds(waitSeconds))
+                : statusService.findAsync(request.getJobId());
+        return status.onItem()
+                     .transform(this::toProto)
+                     .onFailure(NoSuchElementException.class)
+                     .transform(throwable -> notFound("Job %s not found".formatted(request.getJobId())));
     }
 
     @Override
@@ -57,13 +56,14 @@ public class ProfilePhotoJobGrpcService extends MutinyProfilePhotoJobGrpcGrpc.Pr
 
         Multi<ProfilePhotoJobStatus> initial = Multi.createFrom().empty();
         if (!jobId.isBlank()) {
-            initial = Multi.createFrom().item(() -> {
-                        var current = statusService.find(jobId);
+            initial = statusService.findAsync(jobId)
+                    .onItem()
+                    .invoke(current -> {
                         if (!current.customerId().equals(request.getCustomerId())) {
                             throw new NoSuchElementException();
                         }
-                        return current;
                     })
+                    .toMulti()
                     .onFailure(NoSuchElementException.class)
                     .transform(throwable -> notFound("Job %s not found".formatted(jobId)));
         }
@@ -73,13 +73,14 @@ public class ProfilePhotoJobGrpcService extends MutinyProfilePhotoJobGrpcGrpc.Pr
                       .transform(this::toProto);
     }
 
-    private JobStatusResponse toProto(ProfilePhotoJobStatus status) {
+    JobStatusResponse toProto(ProfilePhotoJobStatus status) {
         return JobStatusResponse.newBuilder()
                                 .setJobId(status.jobId())
                                 .setCustomerId(status.customerId())
                                 .setStatus(toProtoStatus(status.status()))
                                 .setOriginalPhotoUrl(nullToEmpty(status.originalPhotoUrl()))
                                 .setGeneratedPhotoUrl(nullToEmpty(status.generatedPhotoUrl()))
+                                .putAllVariants(status.variants())
                                 .setError(nullToEmpty(status.error()))
                                 .setCreatedAt(toTimestamp(status.createdAt()))
                                 .setUpdatedAt(toTimestamp(status.updatedAt()))
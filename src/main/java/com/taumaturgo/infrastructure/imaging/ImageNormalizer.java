@@ -0,0 +1,186 @@
+package com.taumaturgo.infrastructure.imaging;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.stream.FileImageInputStream;
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Crops, scales and rotates an upload into the JPEG img2img input A1111 would otherwise derive itself.
+public final class ImageNormalizer {
+    private static final float JPEG_QUALITY = 0.9f;
+    private static final int EXIF_ORIENTATION = 0x0112;
+
+    private ImageNormalizer() {
+    }
+
+    // Decodes straight from the file with the crop and a coarse subsampling applied, so neither the upload nor its
+    // full-resolution pixels are held in memory; bilinear halving does the rest.
+    public static void normalize(Path source, Path target, int width, int height) throws IOException {
+        var orientation = orientation(source);
+        // orientations 5 to 8 swap the axes, so the stored image is scaled to the transposed size
+        var transposed = orientation >= 5;
+        var scaledWidth = transposed ? height : width;
+        var scaledHeight = transposed ? width : height;
+
+        BufferedImage decoded;
+        try (var input = new FileImageInputStream(source.toFile())) {
+            var readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            var reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                var region = centreCrop(reader.getWidth(0), reader.getHeight(0), scaledWidth, scaledHeight);
+                var step = Math.max(1, Math.min(region.width / (scaledWidth * 2), region.height / (scaledHeight * 2)));
+                var param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                param.setSourceSubsampling(step, step, 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        writeJpeg(orient(downscale(decoded, scaledWidth, scaledHeight), orientation), target);
+    }
+
+    static Rectangle centreCrop(int sourceWidth, int sourceHeight, int width, int height) {
+        if ((long) sourceWidth * height > (long) sourceHeight * width) {
+            var cropWidth = (int) Math.max(1, (long) sourceHeight * width / height);
+            return new Rectangle((sourceWidth - cropWidth) / 2, 0, cropWidth, sourceHeight);
+        }
+        var cropHeight = (int) Math.max(1, (long) sourceWidth * height / width);
+        return new Rectangle(0, (sourceHeight - cropHeight) / 2, sourceWidth, cropHeight);
+    }
+
+    static BufferedImage downscale(BufferedImage image, int width, int height) {
+        var current = image;
+        var currentWidth = image.getWidth();
+        var currentHeight = image.getHeight();
+        do {
+            currentWidth = currentWidth > width ? Math.max(currentWidth / 2, width) : width;
+            currentHeight = currentHeight > height ? Math.max(currentHeight / 2, height) : height;
+            current = resize(current, currentWidth, currentHeight);
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    // Always draws into opaque RGB, transparency over white, which is also what the JPEG encoder needs.
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        var resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        var graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, image.getColorModel().hasAlpha() ? Color.WHITE : null, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    // Maps every output pixel back to the stored pixel it shows; cheap once the image is at its final size.
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation <= 1) {
+            return image;
+        }
+        var w = image.getWidth();
+        var h = image.getHeight();
+        var transposed = orientation >= 5;
+        var outputWidth = transposed ? h : w;
+        var outputHeight = transposed ? w : h;
+        var source = image.getRGB(0, 0, w, h, null, 0, w);
+        var output = new int[source.length];
+        for (int y = 0; y < outputHeight; y++) {
+            for (int x = 0; x < outputWidth; x++) {
+                var index = switch (orientation) {
+                    case 2 -> y * w + (w - 1 - x);
+                    case 3 -> (h - 1 - y) * w + (w - 1 - x);
+                    case 4 -> (h - 1 - y) * w + x;
+                    case 5 -> x * w + y;
+                    case 6 -> (h - 1 - x) * w + y;
+                    case 7 -> (h - 1 - x) * w + (w - 1 - y);
+                    case 8 -> x * w + (w - 1 - y);
+                    default -> y * w + x;
+                };
+                output[y * outputWidth + x] = source[index];
+            }
+        }
+        var oriented = new BufferedImage(outputWidth, outputHeight, BufferedImage.TYPE_INT_RGB);
+        oriented.setRGB(0, 0, outputWidth, outputHeight, output, 0, outputWidth);
+        return oriented;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        var writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (var output = ImageIO.createImageOutputStream(target.toFile())) {
+            var param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Walks the JPEG markers up to the first scan looking for the Exif APP1 segment; anything else is upright.
+    static int orientation(Path source) throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (input.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                var marker = input.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1;
+                }
+                var length = input.readUnsignedShort() - 2;
+                if (marker == 0xFFE1) {
+                    var orientation = exifOrientation(input.readNBytes(length));
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                } else {
+                    input.skipNBytes(length);
+                }
+            }
+        } catch (EOFException exception) {
+            return 1;
+        }
+    }
+
+    private static int exifOrientation(byte[] segment) {
+        if (segment.length < 14 || !new String(segment, 0, 6, StandardCharsets.ISO_8859_1).equals("Exif\0\0")) {
+            return 0;
+        }
+        try {
+            var tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+            tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            var directory = tiff.getInt(4);
+            var entries = Short.toUnsignedInt(tiff.getShort(directory));
+            for (int i = 0; i < entries; i++) {
+                var entry = directory + 2 + i * 12;
+                if (Short.toUnsignedInt(tiff.getShort(entry)) == EXIF_ORIENTATION) {
+                    var orientation = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                    return orientation >= 1 && orientation <= 8 ? orientation : 1;
+                }
+            }
+        } catch (IndexOutOfBoundsException exception) {
+            // truncated or malformed Exif, treat the image as upright
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,94 @@
+package com.taumaturgo.infrastructure.imaging;
+
+import com.taumaturgo.infrastructure.async.JobPipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Own bounded pool, so decoding large photos never competes with the Stable Diffusion or database threads.
+@ApplicationScoped
+public class ImagePreprocessor {
+    private final boolean enabled;
+    private final ExecutorService cpu;
+    private final Timer duration;
+
+    public ImagePreprocessor(MeterRegistry registry,
+                             @ConfigProperty(name = "avatarforge.preprocessing.enabled", defaultValue = "true") boolean enabled,
+                             @ConfigProperty(name = "avatarforge.preprocessing.threads", defaultValue = "2") int threads) {
+        this.enabled = enabled;
+        this.cpu = Executors.newFixedThreadPool(threads);
+        JobPipelineMetrics.monitor(registry, "preprocessing", cpu);
+        this.duration = Timer.builder("stable_diffusion.preprocessing").register(registry);
+    }
+
+    // A new temporary file owned by the caller, or the original when nothing was written.
+    public Uni<Path> normalize(Path original, int width, int height) {
+        if (!enabled) {
+            return Uni.createFrom().item(original);
+        }
+        return Uni.createFrom()
+                  .item(() -> duration.record(() -> normalizeOrKeep(original, width, height)))
+                  .runSubscriptionOn(cpu);
+    }
+
+    public Uni<String> hash(Path upload) {
+        return Uni.createFrom().item(() -> sha256(upload)).runSubscriptionOn(cpu);
+    }
+
+    private Path normalizeOrKeep(Path original, int width, int height) {
+        Path normalized = null;
+        try {
+            normalized = Files.createTempFile("stable-diffusion-input-", ".jpg");
+            ImageNormalizer.normalize(original, normalized, width, height);
+            return normalized;
+        } catch (Exception exception) {
+            // ImageIO cannot read every upload (CMYK JPEG, for one); A1111 decodes those itself
+            Logger.getLogger(getClass()).warnf(exception, "Failed to normalize %s, sending the original", original);
+            deleteSilently(normalized);
+            return original;
+        }
+    }
+
+    // Streams the upload through the digest instead of loading it.
+    private static String sha256(Path upload) {
+        try (var input = new DigestInputStream(Files.newInputStream(upload), MessageDigest.getInstance("SHA-256"))) {
+            input.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(input.getMessageDigest().digest());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Unable to read upload %s".formatted(upload), exception);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private void deleteSilently(Path path) {
+        try {
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warnf(exception, "Failed to cleanup temp file %s", path);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cpu.shutdownNow();
+    }
+}
@@ -0,0 +1,32 @@
+package com.taumaturgo.infrastructure.imaging;
+
+import javax.imageio.ImageIO;
+import java.util.regex.Pattern;
+
+// Configured as name:format:size, e.g. jpeg-64:jpeg:64; format is an ImageIO format name, so WebP needs a plugin.
+public record ImageVariant(String name, String format, int size, String contentType) {
+    private static final Pattern NAME = Pattern.compile("[a-z0-9][a-z0-9-]*");
+
+    public static ImageVariant parse(String spec) {
+        var parts = spec.trim().split(":");
+        if (parts.length != 3 || !NAME.matcher(parts[0]).matches()) {
+            throw new IllegalArgumentException("Invalid variant %s, expected name:format:size".formatted(spec));
+        }
+        int size;
+        try {
+            size = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Invalid size in variant %s".formatted(spec), exception);
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid size in variant %s".formatted(spec));
+        }
+        var writers = ImageIO.getImageWritersByFormatName(parts[1]);
+        if (!writers.hasNext()) {
+            throw new IllegalArgumentException("No ImageIO writer for format %s in variant %s".formatted(parts[1], spec));
+        }
+        var mimeTypes = writers.next().getOriginatingProvider().getMIMETypes();
+        var contentType = mimeTypes != null && mimeTypes.length > 0 ? mimeTypes[0] : "application/octet-stream";
+        return new ImageVariant(parts[0], parts[1], size, contentType);
+    }
+}
@@ -0,0 +1,46 @@
+package com.taumaturgo.infrastructure.imaging;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Scales to fit the variant's size square, keeping the aspect ratio; lossy formats use a fixed quality.
+public final class ImageVariants {
+    private static final float LOSSY_QUALITY = 0.85f;
+
+    private ImageVariants() {
+    }
+
+    public static void render(Path source, Path target, ImageVariant variant) throws IOException {
+        var image = ImageIO.read(source.toFile());
+        if (image == null) {
+            throw new IOException("Unsupported image %s".formatted(source));
+        }
+        var scale = Math.min(1.0, (double) variant.size() / Math.max(image.getWidth(), image.getHeight()));
+        var width = (int) Math.max(1, Math.round(image.getWidth() * scale));
+        var height = (int) Math.max(1, Math.round(image.getHeight() * scale));
+
+        var writer = ImageIO.getImageWritersByFormatName(variant.format()).next();
+        try (var output = ImageIO.createImageOutputStream(target.toFile())) {
+            var param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                var types = param.getCompressionTypes();
+                if (param.getCompressionType() == null && types != null && types.length > 0) {
+                    param.setCompressionType(types[0]);
+                }
+                if (param.isCompressionLossless()) {
+                    param.setCompressionMode(ImageWriteParam.MODE_DEFAULT);
+                } else {
+                    param.setCompressionQuality(LOSSY_QUALITY);
+                }
+            }
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(ImageNormalizer.downscale(image, width, height), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package com.taumaturgo.infrastructure.repositories;
 
 import com.taumaturgo.domain.models.Customer;
+import com.taumaturgo.domain.models.ProfilePhoto;
 import com.taumaturgo.domain.repositories.CustomerQuery;
 import com.taumaturgo.domain.repositories.CustomerRepository;
+import com.taumaturgo.infrastructure.repositories.entities.CustomerProfilePhotoRow;
 import com.taumaturgo.infrastructure.repositories.entities.CustomerProfilePhotos;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @ApplicationScoped
 public class HibernateCustomerRepository implements CustomerRepository {
+    private static final int FETCH_SIZE = 500;
+
     private final EntityManager entityManager;
 
     public HibernateCustomerRepository(EntityManager entityManager) {
@@ -25,30 +36,94 @@ public class HibernateCustomerRepository implements CustomerRepository {
     }
 
     @Override
-    public List<Customer> find(CustomerQuery query) {
+    public Stream<Customer> find(CustomerQuery query) {
+        var rows = rows(query);
+        query.limit().ifPresent(rows::setMaxResults);
+
+        return groupByCustomer(rows.getResultStream());
+    }
+
+    @Override
+    public CustomerQuery.Page findPage(CustomerQuery query) {
+        var limit = query.limit().orElseThrow();
+        return page(rows(query).setMaxResults(limit + 1).getResultList(), limit);
+    }
+
+    static CustomerQuery.Page page(List<CustomerProfilePhotoRow> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CustomerQuery.Page(groupByCustomer(rows.stream()).toList(), Optional.empty());
+        }
+        var last = rows.get(limit - 1);
+        return new CustomerQuery.Page(groupByCustomer(rows.subList(0, limit).stream()).toList(),
+                                      Optional.of(new CustomerQuery.Cursor(last.customerId(), last.id())));
+    }
+
+    static Stream<Customer> groupByCustomer(Stream<CustomerProfilePhotoRow> rows) {
+        var iterator = rows.iterator();
+        var customers = new Iterator<Customer>() {
+            private CustomerProfilePhotoRow pending;
+
+            @Override
+            public boolean hasNext() {
+                return pending != null || iterator.hasNext();
+            }
+
+            @Override
+            public Customer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                var first = pending != null ? pending : iterator.next();
+                pending = null;
+                var photos = new ArrayList<ProfilePhoto>();
+                photos.add(first.toDomain());
+                while (iterator.hasNext()) {
+                    var row = iterator.next();
+                    if (!row.customerId().equals(first.customerId())) {
+                        pending = row;
+                        break;
+                    }
+                    photos.add(row.toDomain());
+                }
+                return new Customer(first.customerId(), photos);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(customers, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                            .onClose(rows::close);
+    }
+
+    private TypedQuery<CustomerProfilePhotoRow> rows(CustomerQuery query) {
         var cb = entityManager.getCriteriaBuilder();
-        var cq = cb.createQuery(CustomerProfilePhotos.class);
+        var cq = cb.createQuery(CustomerProfilePhotoRow.class);
         var root = cq.from(CustomerProfilePhotos.class);
 
-        cq.select(root).where(conditions(query, cb, root));
-
+        cq.select(cb.construct(CustomerProfilePhotoRow.class,
+                               customerId(root),
+                               photoId(root),
+                               root.get("originalPhoto"),
+                               root.get("generatedPhoto"),
+                               root.get("variants")))
+          .where(conditions(query, cb, root))
+          .orderBy(cb.asc(customerId(root)), cb.asc(photoId(root)));
         return entityManager.createQuery(cq)
-                            .getResultStream()
-                            .map(CustomerProfilePhotos::toDomain)
-                            .collect(Collectors.groupingBy(Customer::id))
-                            .entrySet()
-                            .stream()
-                            .map(entry -> new Customer(entry.getKey(),
-                                                       entry.getValue()
-                                                            .stream()
-                                                            .flatMap(customer -> customer.profilePhotos().stream()).toList()))
-                            .toList();
+                            .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE);
     }
 
     private Predicate[] conditions(CustomerQuery query, CriteriaBuilder cb, Root<CustomerProfilePhotos> root) {
         return Stream.of(
-                query.ids().map(id -> cb.in(root.get("compositeKey").get("customerId")).value(id)))
+                query.ids().map(ids -> customerId(root).in(ids)),
+                query.after().map(after -> cb.or(cb.greaterThan(customerId(root), after.customerId()),
+                                                 cb.and(cb.equal(customerId(root), after.customerId()),
+                                                        cb.greaterThan(photoId(root), after.photoId())))))
                      .flatMap(Optional::stream)
                      .toArray(Predicate[]::new);
     }
+
+    private Path<String> customerId(Root<CustomerProfilePhotos> root) {
+        return root.get("compositeKey").get("customerId");
+    }
+
+    private Path<String> photoId(Root<CustomerProfilePhotos> root) {
+        return root.get("compositeKey").get("id");
+    }
 }
@@ -0,0 +1,45 @@
+package com.taumaturgo.infrastructure.repositories;
+
+import com.taumaturgo.domain.models.GenerationResult;
+import com.taumaturgo.domain.repositories.GenerationResultRepository;
+import com.taumaturgo.infrastructure.repositories.entities.GenerationResultEntity;
+import com.taumaturgo.infrastructure.repositories.entities.VariantsConverter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@ApplicationScoped
+public class HibernateGenerationResultRepository implements GenerationResultRepository {
+    // the native insert bypasses the entity mapping, so variants are serialized here
+    private static final VariantsConverter VARIANTS = new VariantsConverter();
+
+    private final EntityManager entityManager;
+
+    public HibernateGenerationResultRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public Optional<GenerationResult> find(String cacheKey) {
+        return Optional.ofNullable(entityManager.find(GenerationResultEntity.class, cacheKey))
+                       .map(GenerationResultEntity::toDomain);
+    }
+
+    @Override
+    @Transactional
+    public void save(String cacheKey, GenerationResult result) {
+        entityManager.createNativeQuery("""
+                                        INSERT IGNORE INTO generation_results (cache_key, original_photo_url, generated_photo_url, variants, created_at)
+                                        VALUES (:cacheKey, :originalPhotoUrl, :generatedPhotoUrl, :variants, :createdAt)""")
+                     .setParameter("cacheKey", cacheKey)
+                     .setParameter("originalPhotoUrl", result.originalPhotoUrl())
+                     .setParameter("generatedPhotoUrl", result.generatedPhotoUrl())
+                     .setParameter("variants", VARIANTS.convertToDatabaseColumn(result.variants()))
+                     .setParameter("createdAt", Instant.now())
+                     .executeUpdate();
+    }
+}
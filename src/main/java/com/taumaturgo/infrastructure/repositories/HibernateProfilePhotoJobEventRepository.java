@@ -0,0 +1,60 @@
+package com.taumaturgo.infrastructure.repositories;
+
+import com.taumaturgo.domain.models.ProfilePhotoJobEvent;
+import com.taumaturgo.domain.repositories.ProfilePhotoJobEventRepository;
+import com.taumaturgo.infrastructure.repositories.entities.ProfilePhotoJobEventEntity;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class HibernateProfilePhotoJobEventRepository implements ProfilePhotoJobEventRepository {
+    private final EntityManager entityManager;
+
+    public HibernateProfilePhotoJobEventRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ProfilePhotoJobEvent> findAfter(long sequence, int limit) {
+        return entityManager.createQuery("""
+                                         SELECT event FROM ProfilePhotoJobEventEntity event
+                                         WHERE event.sequence > :sequence
+                                         ORDER BY event.sequence""", ProfilePhotoJobEventEntity.class)
+                            .setParameter("sequence", sequence)
+                            .setMaxResults(limit)
+                            .getResultStream()
+                            .map(ProfilePhotoJobEventEntity::toDomain)
+                            .toList();
+    }
+
+    @Override
+    public List<ProfilePhotoJobEvent> findBySequences(Collection<Long> sequences) {
+        return entityManager.createQuery("""
+                                         SELECT event FROM ProfilePhotoJobEventEntity event
+                                         WHERE event.sequence IN :sequences
+                                         ORDER BY event.sequence""", ProfilePhotoJobEventEntity.class)
+                            .setParameter("sequences", sequences)
+                            .getResultStream()
+                            .map(ProfilePhotoJobEventEntity::toDomain)
+                            .toList();
+    }
+
+    @Override
+    public long lastSequence() {
+        return entityManager.createQuery("SELECT COALESCE(MAX(event.sequence), 0) FROM ProfilePhotoJobEventEntity event", Long.class)
+                            .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    public int deleteOlderThan(Instant instant) {
+        return entityManager.createQuery("DELETE FROM ProfilePhotoJobEventEntity event WHERE event.createdAt < :instant")
+                            .setParameter("instant", instant)
+                            .executeUpdate();
+    }
+}
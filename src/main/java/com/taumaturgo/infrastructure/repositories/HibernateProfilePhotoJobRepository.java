@@ -1,32 +1,50 @@
 package com.taumaturgo.infrastructure.repositories;
 
+import com.taumaturgo.domain.models.JobQueueStats;
 import com.taumaturgo.domain.models.ProfilePhoto;
 import com.taumaturgo.domain.models.ProfilePhotoJob;
 import com.taumaturgo.domain.models.ProcessingStatus;
 import com.taumaturgo.domain.repositories.ProfilePhotoJobRepository;
+import com.taumaturgo.infrastructure.async.CustomerTiers;
+import com.taumaturgo.infrastructure.cluster.ClusterNode;
 import com.taumaturgo.infrastructure.repositories.entities.ProfilePhotoJobEntity;
+import com.taumaturgo.infrastructure.repositories.entities.ProfilePhotoJobEventEntity;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ApplicationScoped
 public class HibernateProfilePhotoJobRepository implements ProfilePhotoJobRepository {
     private final EntityManager entityManager;
+    private final ClusterNode node;
+    private final CustomerTiers tiers;
 
-    public HibernateProfilePhotoJobRepository(EntityManager entityManager) {
+    @ConfigProperty(name = "avatarforge.jobs.fairness.enabled", defaultValue = "true")
+    boolean fairness;
+
+    public HibernateProfilePhotoJobRepository(EntityManager entityManager, ClusterNode node, CustomerTiers tiers) {
         this.entityManager = entityManager;
+        this.node = node;
+        this.tiers = tiers;
     }
 
     @Override
     @Transactional
     public ProfilePhotoJob create(String customerId, ProfilePhoto profilePhoto, String callbackUrl) {
         var entity = ProfilePhotoJobEntity.create(customerId, profilePhoto, callbackUrl);
+        entity.virtualStart = fairness ? virtualStart(customerId) : 0;
         entityManager.persist(entity);
+        var job = entity.toDomain();
+        appendEvent(job);
         entityManager.flush();
-        return entity.toDomain();
+        return job;
     }
 
     @Override
@@ -37,27 +55,155 @@ public class HibernateProfilePhotoJobRepository implements ProfilePhotoJobReposi
 
     @Override
     @Transactional
-    public void updateStatus(String jobId, ProcessingStatus status, String error) {
-        var entity = entityManager.find(ProfilePhotoJobEntity.class, jobId);
-        if (entity == null) {
-            return;
+    public Optional<ProfilePhotoJob> transition(ProfilePhotoJob job,
+                                                ProcessingStatus status,
+                                                String originalPhotoUrl,
+                                                String generatedPhotoUrl,
+                                                Map<String, String> variants,
+                                                String error) {
+        var next = job.transition(status, originalPhotoUrl, generatedPhotoUrl, variants, error, Instant.now());
+        var updated = entityManager.createQuery("""
+                                                UPDATE ProfilePhotoJobEntity job
+                                                SET job.status = :status,
+                                                    job.originalPhotoPath = :originalPhotoUrl,
+                                                    job.generatedPhotoUrl = :generatedPhotoUrl,
+                                                    job.variants = :variants,
+                                                    job.error = :error,
+                                                    job.updatedAt = :updatedAt,
+                                                    job.version = :version
+                                                WHERE job.id = :id AND job.version = :expectedVersion""")
+                                   .setParameter("status", next.status())
+                                   .setParameter("originalPhotoUrl", next.originalPhotoUrl())
+                                   .setParameter("generatedPhotoUrl", next.generatedPhotoUrl())
+                                   .setParameter("variants", next.profilePhoto().variants())
+                                   .setParameter("error", next.error())
+                                   .setParameter("updatedAt", next.updatedAt())
+                                   .setParameter("version", next.version())
+                                   .setParameter("id", job.id())
+                                   .setParameter("expectedVersion", job.version())
+                                   .executeUpdate();
+        if (updated == 0) {
+            return Optional.empty();
         }
-        entity.status = status;
-        entity.error = error;
-        entity.updatedAt = Instant.now();
-        entityManager.merge(entity);
+        appendEvent(next);
+        return Optional.of(next);
+    }
+
+    @Override
+    @Transactional
+    public Optional<ProfilePhotoJob> claimNext(String owner, Duration lease) {
+        var now = Instant.now();
+        return lockNextExpired(now).or(this::lockNextPending)
+                                   .map(entity -> {
+                                       entity.status = ProcessingStatus.PROCESSING;
+                                       entity.leaseOwner = owner;
+                                       entity.leaseExpiresAt = now.plus(lease);
+                                       entity.attempts++;
+                                       entity.version++;
+                                       entity.updatedAt = now;
+                                       var job = entity.toDomain();
+                                       appendEvent(job);
+                                       return job;
+                                   });
     }
 
     @Override
     @Transactional
-    public void updateResult(String jobId, String originalPhotoUrl, String generatedPhotoUrl) {
-        var entity = entityManager.find(ProfilePhotoJobEntity.class, jobId);
-        if (entity == null) {
-            return;
+    public int renewLeases(String owner, Duration lease) {
+        return entityManager.createQuery("""
+                                         UPDATE ProfilePhotoJobEntity job
+                                         SET job.leaseExpiresAt = :expiresAt
+                                         WHERE job.leaseOwner = :owner AND job.status = :status""")
+                            .setParameter("expiresAt", Instant.now().plus(lease))
+                            .setParameter("owner", owner)
+                            .setParameter("status", ProcessingStatus.PROCESSING)
+                            .executeUpdate();
+    }
+
+    // Served by idx_profile_photo_jobs_status_created.
+    @Override
+    public JobQueueStats queueStats() {
+        var row = entityManager.createQuery("""
+                                            SELECT COUNT(job), MIN(job.createdAt) FROM ProfilePhotoJobEntity job
+                                            WHERE job.status = :status""", Object[].class)
+                               .setParameter("status", ProcessingStatus.PENDING)
+                               .getSingleResult();
+        return new JobQueueStats((Long) row[0], (Instant) row[1]);
+    }
+
+    // Written in the caller's transaction so every node tailing the outbox sees exactly the committed transitions.
+    private void appendEvent(ProfilePhotoJob job) {
+        entityManager.persist(ProfilePhotoJobEventEntity.of(job, node.id()));
+    }
+
+    // Loads the locked row as a managed entity so the claim needs no second read.
+    private Optional<ProfilePhotoJobEntity> lockNextExpired(Instant now) {
+        return first(entityManager.createNativeQuery("""
+                                                     SELECT * FROM profile_photo_jobs
+                                                     WHERE status = 'PROCESSING' AND lease_expires_at < :now
+                                                     ORDER BY lease_expires_at
+                                                     LIMIT 1
+                                                     FOR UPDATE SKIP LOCKED""", ProfilePhotoJobEntity.class)
+                                  .setParameter("now", now)
+                                  .getResultList());
+    }
+
+    private Optional<ProfilePhotoJobEntity> lockNextPending() {
+        return first(entityManager.createNativeQuery("""
+                                                     SELECT * FROM profile_photo_jobs
+                                                     WHERE status = 'PENDING'
+                                                     ORDER BY virtual_start, created_at
+                                                     LIMIT 1
+                                                     FOR UPDATE SKIP LOCKED""", ProfilePhotoJobEntity.class)
+                                  .getResultList());
+    }
+
+    // Start-time fair queueing: a job starts at the later of the system's virtual time and the finish of its customer's
+    // previous job, and finishes one tier-weighted cost later. Claiming in start order interleaves customers however
+    // many jobs each one queued, and an idle customer comes back at the current virtual time rather than with credit.
+    // The upsert creates or locks the customer's row, so concurrent uploads of one customer get consecutive slots.
+    private long virtualStart(String customerId) {
+        var now = virtualNow();
+        entityManager.createNativeQuery("""
+                                        INSERT INTO customer_schedules (customer_id, virtual_finish)
+                                        VALUES (:customerId, 0)
+                                        ON DUPLICATE KEY UPDATE virtual_finish = virtual_finish""")
+                     .setParameter("customerId", customerId)
+                     .executeUpdate();
+        var previousFinish = (Number) entityManager.createNativeQuery("SELECT virtual_finish FROM customer_schedules WHERE customer_id = :customerId")
+                                                   .setParameter("customerId", customerId)
+                                                   .getSingleResult();
+        var start = virtualStart(previousFinish.longValue(), now);
+        entityManager.createNativeQuery("UPDATE customer_schedules SET virtual_finish = :finish WHERE customer_id = :customerId")
+                     .setParameter("customerId", customerId)
+                     .setParameter("finish", start + tiers.virtualCost(customerId))
+                     .executeUpdate();
+        return start;
+    }
+
+    // Both are index lookups, and a slightly stale read only shifts where a newcomer lands among jobs already waiting.
+    private long virtualNow() {
+        var head = (Number) entityManager.createNativeQuery("SELECT MIN(virtual_start) FROM profile_photo_jobs WHERE status = 'PENDING'")
+                                         .getSingleResult();
+        var latest = head != null
+                     ? null
+                     : (Number) entityManager.createNativeQuery("SELECT MAX(virtual_finish) FROM customer_schedules").getSingleResult();
+        return virtualNow(head, latest);
+    }
+
+    static long virtualStart(long previousFinish, long virtualNow) {
+        return Math.max(previousFinish, virtualNow);
+    }
+
+    // The start of the next job to be claimed; with nothing waiting, the latest finish handed out.
+    static long virtualNow(Number pendingHead, Number latestFinish) {
+        if (pendingHead != null) {
+            return pendingHead.longValue();
         }
-        entity.originalPhotoPath = originalPhotoUrl;
-        entity.generatedPhotoUrl = generatedPhotoUrl;
-        entity.updatedAt = Instant.now();
-        entityManager.merge(entity);
+        return latestFinish == null ? 0 : latestFinish.longValue();
+    }
+
+    private Optional<ProfilePhotoJobEntity> first(List<?> entities) {
+        return entities.stream().findFirst().map(ProfilePhotoJobEntity.class::cast);
     }
 }
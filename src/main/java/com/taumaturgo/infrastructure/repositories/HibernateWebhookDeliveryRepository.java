@@ -0,0 +1,142 @@
+package com.taumaturgo.infrastructure.repositories;
+
+import com.taumaturgo.domain.models.WebhookDelivery;
+import com.taumaturgo.domain.repositories.WebhookDeliveryRepository;
+import com.taumaturgo.infrastructure.repositories.entities.WebhookDeliveryEntity;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@ApplicationScoped
+public class HibernateWebhookDeliveryRepository implements WebhookDeliveryRepository {
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final EntityManager entityManager;
+
+    public HibernateWebhookDeliveryRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String callbackUrl, String jobId, String payload) {
+        entityManager.persist(WebhookDeliveryEntity.create(callbackUrl, jobId, payload));
+    }
+
+    @Override
+    @Transactional
+    public List<WebhookDelivery> claimDue(String owner, Duration lease, int limit) {
+        var now = Instant.now();
+        List<?> due = entityManager.createNativeQuery("""
+                                                      SELECT * FROM webhook_deliveries
+                                                      WHERE abandoned_at IS NULL
+                                                        AND next_attempt_at <= :now
+                                                        AND (lease_expires_at IS NULL OR lease_expires_at < :now)
+                                                      ORDER BY next_attempt_at
+                                                      LIMIT :limit
+                                                      FOR UPDATE SKIP LOCKED""", WebhookDeliveryEntity.class)
+                                   .setParameter("now", now)
+                                   .setParameter("limit", limit)
+                                   .getResultList();
+        return due.stream()
+                  .map(WebhookDeliveryEntity.class::cast)
+                  .map(entity -> {
+                      entity.leaseOwner = owner;
+                      entity.leaseExpiresAt = now.plus(lease);
+                      return entity.toDomain();
+                  })
+                  .toList();
+    }
+
+    @Override
+    @Transactional
+    public void delivered(String owner, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("DELETE FROM WebhookDeliveryEntity delivery WHERE delivery.id IN :ids AND delivery.leaseOwner = :owner")
+                     .setParameter("ids", ids)
+                     .setParameter("owner", owner)
+                     .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void retry(String owner, long id, Instant nextAttemptAt, String error) {
+        entityManager.createQuery("""
+                                  UPDATE WebhookDeliveryEntity delivery
+                                  SET delivery.attempts = delivery.attempts + 1,
+                                      delivery.nextAttemptAt = :nextAttemptAt,
+                                      delivery.lastError = :error,
+                                      delivery.leaseOwner = NULL,
+                                      delivery.leaseExpiresAt = NULL
+                                  WHERE delivery.id = :id
+                                    AND delivery.leaseOwner = :owner""")
+                     .setParameter("nextAttemptAt", nextAttemptAt)
+                     .setParameter("error", truncate(error))
+                     .setParameter("id", id)
+                     .setParameter("owner", owner)
+                     .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void release(String owner, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("""
+                                  UPDATE WebhookDeliveryEntity delivery
+                                  SET delivery.leaseOwner = NULL,
+                                      delivery.leaseExpiresAt = NULL
+                                  WHERE delivery.id IN :ids
+                                    AND delivery.leaseOwner = :owner""")
+                     .setParameter("ids", ids)
+                     .setParameter("owner", owner)
+                     .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void abandon(String owner, List<Long> ids, String error) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("""
+                                  UPDATE WebhookDeliveryEntity delivery
+                                  SET delivery.attempts = delivery.attempts + 1,
+                                      delivery.abandonedAt = :now,
+                                      delivery.lastError = :error,
+                                      delivery.leaseOwner = NULL,
+                                      delivery.leaseExpiresAt = NULL
+                                  WHERE delivery.id IN :ids
+                                    AND delivery.leaseOwner = :owner""")
+                     .setParameter("now", Instant.now())
+                     .setParameter("error", truncate(error))
+                     .setParameter("ids", ids)
+                     .setParameter("owner", owner)
+                     .executeUpdate();
+    }
+
+    @Override
+    public long pending() {
+        return entityManager.createQuery("SELECT COUNT(delivery) FROM WebhookDeliveryEntity delivery WHERE delivery.abandonedAt IS NULL", Long.class)
+                            .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    public int deleteAbandonedBefore(Instant instant) {
+        return entityManager.createQuery("DELETE FROM WebhookDeliveryEntity delivery WHERE delivery.abandonedAt < :instant")
+                            .setParameter("instant", instant)
+                            .executeUpdate();
+    }
+
+    private String truncate(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -4,19 +4,19 @@ import com.taumaturgo.domain.models.ProfilePhoto;
 import com.taumaturgo.domain.repositories.ProfilePhotoStorageRepository;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.GetUrlRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.nio.file.Path;
 import java.time.Duration;
-import java.util.Base64;
-import java.util.concurrent.CompletableFuture;
+import java.util.Objects;
 
 @ApplicationScoped
 public class S3ProfilePhotoStorageRepository implements ProfilePhotoStorageRepository {
@@ -25,64 +25,74 @@ public class S3ProfilePhotoStorageRepository implements ProfilePhotoStorageRepos
     @ConfigProperty(name = "quarkus.s3.devservices.buckets")
     private String bucket;
 
+    @ConfigProperty(name = "avatarforge.s3.read-after-write.enabled", defaultValue = "true")
+    boolean readAfterWriteCheck;
+
+    @ConfigProperty(name = "avatarforge.s3.read-after-write.max-retries", defaultValue = "5")
+    int readAfterWriteRetries;
+
+    @ConfigProperty(name = "avatarforge.s3.read-after-write.initial-backoff", defaultValue = "PT0.1S")
+    Duration readAfterWriteBackoff;
+
     public S3ProfilePhotoStorageRepository(S3AsyncClient s3) {
         this.s3 = s3;
     }
 
     @Override
-    @Transactional
     public Uni<String> store(String customerId, ProfilePhoto profilePhoto) {
         var key = customerId + "/" + profilePhoto.id();
-        var path = Path.of(profilePhoto.originalPhoto());
-
-        CompletableFuture<PutObjectResponse> future =
-                s3.putObject(PutObjectRequest.builder()
-                                             .bucket(bucket)
-                                             .key(key)
-                                             .contentType("image/png")
-                                             .acl(ObjectCannedACL.PUBLIC_READ)
-                                             .build(),
-                             AsyncRequestBody.fromFile(path));
-
-        return Uni.createFrom()
-                  .completionStage(() -> future)
-                  .onItem().delayIt().by(Duration.ofSeconds(5))
-                  .onItem()
-                  .transform(response -> {
-                      return s3.utilities()
-                               .getUrl(GetUrlRequest.builder()
-                                                    .bucket(bucket)
-                                                    .key(key)
-                                                    .build())
-                               .toString();
-                  });
+        // jobs queued before uploads were sniffed carry no type
+        var contentType = Objects.requireNonNullElse(profilePhoto.originalContentType(), "image/png");
+        return put(key, AsyncRequestBody.fromFile(Path.of(profilePhoto.originalPhoto())), contentType);
     }
 
     @Override
-    @Transactional
-    public Uni<String> store(String customerId, ProfilePhoto profilePhoto, String base64) {
+    public Uni<String> store(String customerId, ProfilePhoto profilePhoto, Path generatedPhoto) {
         var key = customerId + "/" + profilePhoto.id() + "-stable-diffusion";
-        byte[] decodedBytes = Base64.getDecoder().decode(base64);
+        return put(key, AsyncRequestBody.fromFile(generatedPhoto), "image/png");
+    }
 
-        CompletableFuture<PutObjectResponse> future =
-                s3.putObject(PutObjectRequest.builder()
-                                             .bucket(bucket)
-                                             .contentType("image/png")
-                                             .key(key)
-                                             .contentLength((long) decodedBytes.length)
-                                             .acl(ObjectCannedACL.PUBLIC_READ)
-                                             .build(),
-                             AsyncRequestBody.fromBytes(decodedBytes));
+    @Override
+    public Uni<String> store(String customerId, ProfilePhoto profilePhoto, String variant, Path variantPhoto, String contentType) {
+        var key = customerId + "/" + profilePhoto.id() + "-stable-diffusion-" + variant;
+        return put(key, AsyncRequestBody.fromFile(variantPhoto), contentType);
+    }
 
+    // Both URLs are handed to clients as soon as the job is DONE, so make sure the object is readable first.
+    private Uni<String> put(String key, AsyncRequestBody body, String contentType) {
         return Uni.createFrom()
-                  .completionStage(() -> future)
-                  .onItem().delayIt().by(Duration.ofSeconds(5)) // delay
+                  .completionStage(() -> s3.putObject(PutObjectRequest.builder()
+                                                                       .bucket(bucket)
+                                                                       .key(key)
+                                                                       .contentType(contentType)
+                                                                       .acl(ObjectCannedACL.PUBLIC_READ)
+                                                                       .build(),
+                                                      body))
+                  .chain(response -> readAfterWriteCheck ? awaitVisible(key) : Uni.createFrom().voidItem())
                   .onItem()
-                  .transform(response -> s3.utilities()
-                                           .getUrl(GetUrlRequest.builder()
-                                                                .bucket(bucket)
-                                                                .key(key)
-                                                                .build())
-                                           .toString());
+                  .transform(ignored -> s3.utilities()
+                                          .getUrl(GetUrlRequest.builder()
+                                                               .bucket(bucket)
+                                                               .key(key)
+                                                               .build())
+                                          .toString());
+    }
+
+    private Uni<Void> awaitVisible(String key) {
+        return Uni.createFrom()
+                  .completionStage(() -> s3.headObject(HeadObjectRequest.builder()
+                                                                         .bucket(bucket)
+                                                                         .key(key)
+                                                                         .build()))
+                  .onFailure(this::notFound)
+                  .retry()
+                  .withBackOff(readAfterWriteBackoff, readAfterWriteBackoff.multipliedBy(16))
+                  .atMost(readAfterWriteRetries)
+                  .replaceWithVoid();
+    }
+
+    private boolean notFound(Throwable throwable) {
+        return throwable instanceof NoSuchKeyException
+                || throwable instanceof S3Exception exception && exception.statusCode() == 404;
     }
 }
@@ -0,0 +1,12 @@
+package com.taumaturgo.infrastructure.repositories.entities;
+
+import com.taumaturgo.domain.models.ProfilePhoto;
+
+import java.util.Map;
+
+public record CustomerProfilePhotoRow(String customerId, String id, String originalPhoto, String generatedPhoto,
+                                      Map<String, String> variants) {
+    public ProfilePhoto toDomain() {
+        return new ProfilePhoto(id, originalPhoto, generatedPhoto, variants);
+    }
+}
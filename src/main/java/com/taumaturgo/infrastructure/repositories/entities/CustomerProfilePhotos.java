@@ -1,13 +1,13 @@
 package com.taumaturgo.infrastructure.repositories.entities;
 
-import com.taumaturgo.domain.models.Customer;
 import com.taumaturgo.domain.models.ProfilePhoto;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Embeddable;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 
-import java.util.List;
+import java.util.Map;
 
 @Entity(name = "profile_photos")
 public class CustomerProfilePhotos {
@@ -20,6 +20,10 @@ public class CustomerProfilePhotos {
     @Column(name = "generated_photo")
     String generatedPhoto;
 
+    @Column(name = "variants")
+    @Convert(converter = VariantsConverter.class)
+    Map<String, String> variants;
+
     @Embeddable
     static class CompositeKey {
 
@@ -30,13 +34,6 @@ public class CustomerProfilePhotos {
 
     }
 
-    public Customer toDomain() {
-        return new Customer(compositeKey.customerId,
-                            List.of(new ProfilePhoto(compositeKey.id,
-                                                     originalPhoto,
-                                                     generatedPhoto)));
-    }
-
     public static CustomerProfilePhotos fromDomain(String customerId, ProfilePhoto profilePhoto) {
         var entity = new CustomerProfilePhotos();
 
@@ -46,6 +43,7 @@ public class CustomerProfilePhotos {
 
         entity.originalPhoto = profilePhoto.originalPhoto();
         entity.generatedPhoto = profilePhoto.generatedPhoto();
+        entity.variants = profilePhoto.variants();
 
         return entity;
     }
@@ -0,0 +1,36 @@
+package com.taumaturgo.infrastructure.repositories.entities;
+
+import com.taumaturgo.domain.models.GenerationResult;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Entity
+@Table(name = "generation_results")
+public class GenerationResultEntity {
+    @Id
+    @Column(name = "cache_key")
+    public String cacheKey;
+
+    @Column(name = "original_photo_url")
+    public String originalPhotoUrl;
+
+    @Column(name = "generated_photo_url")
+    public String generatedPhotoUrl;
+
+    @Column(name = "variants")
+    @Convert(converter = VariantsConverter.class)
+    public Map<String, String> variants;
+
+    @Column(name = "created_at")
+    public Instant createdAt;
+
+    public GenerationResult toDomain() {
+        return new GenerationResult(originalPhotoUrl, generatedPhotoUrl, variants);
+    }
+}
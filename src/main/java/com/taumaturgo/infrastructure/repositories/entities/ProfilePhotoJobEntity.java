@@ -4,6 +4,7 @@ import com.taumaturgo.domain.models.ProfilePhoto;
 import com.taumaturgo.domain.models.ProfilePhotoJob;
 import com.taumaturgo.domain.models.ProcessingStatus;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -11,6 +12,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
 
 @Entity
@@ -28,9 +30,16 @@ public class ProfilePhotoJobEntity {
     @Column(name = "original_photo_path")
     public String originalPhotoPath;
 
+    @Column(name = "original_content_type")
+    public String originalContentType;
+
     @Column(name = "generated_photo_url")
     public String generatedPhotoUrl;
 
+    @Column(name = "variants")
+    @Convert(converter = VariantsConverter.class)
+    public Map<String, String> variants;
+
     @Column(name = "status")
     @Enumerated(EnumType.STRING)
     public ProcessingStatus status;
@@ -41,6 +50,21 @@ public class ProfilePhotoJobEntity {
     @Column(name = "callback_url")
     public String callbackUrl;
 
+    @Column(name = "lease_owner")
+    public String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    public Instant leaseExpiresAt;
+
+    @Column(name = "attempts")
+    public int attempts;
+
+    @Column(name = "version")
+    public long version;
+
+    @Column(name = "virtual_start")
+    public long virtualStart;
+
     @Column(name = "created_at")
     public Instant createdAt;
 
@@ -53,6 +77,7 @@ public class ProfilePhotoJobEntity {
         entity.customerId = customerId;
         entity.profilePhotoId = profilePhoto.id();
         entity.originalPhotoPath = profilePhoto.originalPhoto();
+        entity.originalContentType = profilePhoto.originalContentType();
         entity.callbackUrl = callbackUrl;
         entity.status = ProcessingStatus.PENDING;
         entity.createdAt = Instant.now();
@@ -63,12 +88,14 @@ public class ProfilePhotoJobEntity {
     public ProfilePhotoJob toDomain() {
         return new ProfilePhotoJob(id,
                                    customerId,
-                                   new ProfilePhoto(profilePhotoId, originalPhotoPath, generatedPhotoUrl),
+                                   new ProfilePhoto(profilePhotoId, originalPhotoPath, generatedPhotoUrl, variants, originalContentType),
                                    status,
                                    originalPhotoPath,
                                    generatedPhotoUrl,
                                    callbackUrl,
                                    error,
+                                   attempts,
+                                   version,
                                    createdAt,
                                    updatedAt);
     }
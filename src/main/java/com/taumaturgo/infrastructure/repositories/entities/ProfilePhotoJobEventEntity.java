@@ -0,0 +1,91 @@
+package com.taumaturgo.infrastructure.repositories.entities;
+
+import com.taumaturgo.domain.models.ProcessingStatus;
+import com.taumaturgo.domain.models.ProfilePhotoJob;
+import com.taumaturgo.domain.models.ProfilePhotoJobEvent;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Entity
+@Table(name = "profile_photo_job_events")
+public class ProfilePhotoJobEventEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq")
+    public Long sequence;
+
+    @Column(name = "job_id")
+    public String jobId;
+
+    @Column(name = "customer_id")
+    public String customerId;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    public ProcessingStatus status;
+
+    @Column(name = "original_photo_url")
+    public String originalPhotoUrl;
+
+    @Column(name = "generated_photo_url")
+    public String generatedPhotoUrl;
+
+    @Column(name = "variants")
+    @Convert(converter = VariantsConverter.class)
+    public Map<String, String> variants;
+
+    @Column(name = "error")
+    public String error;
+
+    @Column(name = "job_created_at")
+    public Instant jobCreatedAt;
+
+    @Column(name = "job_updated_at")
+    public Instant jobUpdatedAt;
+
+    @Column(name = "origin_node")
+    public String originNode;
+
+    @Column(name = "created_at")
+    public Instant createdAt;
+
+    public static ProfilePhotoJobEventEntity of(ProfilePhotoJob job, String originNode) {
+        var entity = new ProfilePhotoJobEventEntity();
+        entity.jobId = job.id();
+        entity.customerId = job.customerId();
+        entity.status = job.status();
+        entity.originalPhotoUrl = job.originalPhotoUrl();
+        entity.generatedPhotoUrl = job.generatedPhotoUrl();
+        entity.variants = job.profilePhoto().variants();
+        entity.error = job.error();
+        entity.jobCreatedAt = job.createdAt();
+        entity.jobUpdatedAt = job.updatedAt();
+        entity.originNode = originNode;
+        entity.createdAt = Instant.now();
+        return entity;
+    }
+
+    public ProfilePhotoJobEvent toDomain() {
+        return new ProfilePhotoJobEvent(sequence,
+                                        originNode,
+                                        jobId,
+                                        customerId,
+                                        status,
+                                        originalPhotoUrl,
+                                        generatedPhotoUrl,
+                                        variants,
+                                        error,
+                                        jobCreatedAt,
+                                        jobUpdatedAt);
+    }
+}
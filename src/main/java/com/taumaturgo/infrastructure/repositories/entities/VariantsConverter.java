@@ -0,0 +1,42 @@
+package com.taumaturgo.infrastructure.repositories.entities;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Stores variant URLs as a JSON object; rows written before variants existed read back as no variants.
+@Converter
+public class VariantsConverter implements AttributeConverter<Map<String, String>, String> {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, String> variants) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(variants);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Unable to write variants", exception);
+        }
+    }
+
+    @Override
+    public Map<String, String> convertToEntityAttribute(String column) {
+        if (column == null || column.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return MAPPER.readValue(column, TYPE);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Unable to read variants", exception);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.taumaturgo.infrastructure.repositories.entities;
+
+import com.taumaturgo.domain.models.WebhookDelivery;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "webhook_deliveries")
+public class WebhookDeliveryEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    public Long id;
+
+    @Column(name = "callback_url")
+    public String callbackUrl;
+
+    @Column(name = "job_id")
+    public String jobId;
+
+    @Column(name = "payload")
+    public String payload;
+
+    @Column(name = "attempts")
+    public int attempts;
+
+    @Column(name = "next_attempt_at")
+    public Instant nextAttemptAt;
+
+    @Column(name = "lease_owner")
+    public String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    public Instant leaseExpiresAt;
+
+    @Column(name = "last_error")
+    public String lastError;
+
+    @Column(name = "abandoned_at")
+    public Instant abandonedAt;
+
+    @Column(name = "created_at")
+    public Instant createdAt;
+
+    public static WebhookDeliveryEntity create(String callbackUrl, String jobId, String payload) {
+        var entity = new WebhookDeliveryEntity();
+        entity.callbackUrl = callbackUrl;
+        entity.jobId = jobId;
+        entity.payload = payload;
+        entity.createdAt = Instant.now();
+        entity.nextAttemptAt = entity.createdAt;
+        return entity;
+    }
+
+    public WebhookDelivery toDomain() {
+        return new WebhookDelivery(id, callbackUrl, jobId, payload, attempts, createdAt);
+    }
+}
@@ -1,11 +1,18 @@
 package com.taumaturgo.infrastructure.resources;
 
 import com.taumaturgo.application.ApplicationService;
+import com.taumaturgo.application.OverloadedException;
 import com.taumaturgo.application.dto.Customer;
+import com.taumaturgo.application.dto.CustomerPage;
 import com.taumaturgo.application.dto.ProfilePhoto;
 import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.application.dto.ProfilePhotoJobSubmission;
+import com.taumaturgo.application.dto.UploadTooLargeException;
 import com.taumaturgo.application.events.ProfilePhotoJobEvents;
+import io.quarkus.runtime.configuration.MemorySize;
 import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
@@ -15,29 +22,60 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.reactive.ResponseStatus;
 import org.jboss.resteasy.reactive.RestForm;
 import org.jboss.resteasy.reactive.RestResponse;
 import org.jboss.resteasy.reactive.RestSseElementType;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
-import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @Path("customers")
 public class CustomerResource {
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ApplicationService service;
     private final ProfilePhotoJobEvents jobEvents;
+    private final MemorySize maxUploadSize;
 
-    public CustomerResource(ApplicationService service, ProfilePhotoJobEvents jobEvents) {
+    public CustomerResource(ApplicationService service,
+                            ProfilePhotoJobEvents jobEvents,
+                            @ConfigProperty(name = "avatarforge.uploads.max-bytes", defaultValue = "10M") MemorySize maxUploadSize) {
         this.service = service;
         this.jobEvents = jobEvents;
+        this.maxUploadSize = maxUploadSize;
     }
 
+    // Pages hold up to `limit` photos in (customerId, photo id) order, so a customer may continue on the next page.
+    // Callers that omit limit get the first 100 photos, not the whole listing, and must follow the next link.
     @GET
-    public List<Customer> searchCustomers() {
-        return service.searchCustomers();
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response searchCustomers(@QueryParam("after") String after,
+                                    @QueryParam("limit") @DefaultValue("100") int limit,
+                                    @Context UriInfo uriInfo) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and %d".formatted(MAX_PAGE_SIZE));
+        }
+        CustomerPage page;
+        try {
+            page = service.searchCustomers(Optional.ofNullable(after), limit);
+        } catch (IllegalArgumentException exception) {
+            throw new BadRequestException("Invalid cursor");
+        }
+
+        var response = Response.ok(page.customers());
+        page.next().ifPresent(next -> response.link(uriInfo.getRequestUriBuilder()
+                                                           .replaceQueryParam("after", next)
+                                                           .replaceQueryParam("limit", limit)
+                                                           .build(), "next"));
+        return response.build();
     }
 
     @GET
@@ -54,32 +92,48 @@ public class CustomerResource {
     @Path("/{id}")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     @ResponseStatus(RestResponse.StatusCode.ACCEPTED)
-    public RestResponse<ProfilePhotoJobStatus> persistProfilePhoto(@PathParam("id") String id,
+    public RestResponse<ProfilePhotoJobSubmission> persistProfilePhoto(@PathParam("id") String id,
                                                                    @RestForm("photo") FileUpload fileUpload,
                                                                    @RestForm("callbackUrl") String callbackUrl) {
-        var status = service.persistProfilePhoto(id, ProfilePhoto.create(fileUpload), callbackUrl);
-        return RestResponse.ResponseBuilder.create(RestResponse.Status.ACCEPTED, status)
-                                           .header("Location", "/customers/%s/photos/%s/status".formatted(id, status.jobId()))
+        ProfilePhoto photo;
+        try {
+            photo = ProfilePhoto.create(fileUpload, maxUploadSize.asLongValue());
+        } catch (IllegalArgumentException exception) {
+            throw new BadRequestException(exception.getMessage());
+        } catch (UploadTooLargeException exception) {
+            throw new WebApplicationException(exception.getMessage(), Response.Status.REQUEST_ENTITY_TOO_LARGE);
+        }
+        ProfilePhotoJobSubmission submission;
+        try {
+            submission = service.persistProfilePhoto(id, photo, callbackUrl);
+        } catch (OverloadedException exception) {
+            throw new WebApplicationException(exception.getMessage(),
+                                              Response.status(Response.Status.TOO_MANY_REQUESTS)
+                                                      .header("Retry-After", exception.retryAfter().toSeconds())
+                                                      .build());
+        }
+        return RestResponse.ResponseBuilder.create(RestResponse.Status.ACCEPTED, submission)
+                                           .header("Location", "/customers/%s/photos/%s/status".formatted(id, submission.status().jobId()))
                                            .build();
     }
 
     @GET
     @Path("/{id}/photos/{jobId}/status")
-    public ProfilePhotoJobStatus getJobStatus(@PathParam("id") String id,
-                                              @PathParam("jobId") String jobId,
-                                              @QueryParam("waitSeconds") @DefaultValue("0") long waitSeconds) {
-        try {
-            var status = waitSeconds > 0
-                    ? service.waitForJobStatus(jobId, waitSeconds)
-                    : service.findJobStatus(jobId);
+    public Uni<ProfilePhotoJobStatus> getJobStatus(@PathParam("id") String id,
+                                                   @PathParam("jobId") String jobId,
+                                                   @QueryParam("waitSeconds") @DefaultValue("0") long waitSeconds) {
+        var status = waitSeconds > 0
+                ? service.waitForJobStatus(jobId, waitSeconds)
+                : service.findJobStatus(jobId);
 
-            if (!status.customerId().equals(id)) {
-                throw new NotFoundException();
-            }
-            return status;
-        } catch (NoSuchElementException exception) {
-            throw new NotFoundException();
-        }
+        return status.onItem()
+                     .invoke(current -> {
+                         if (!current.customerId().equals(id)) {
+                             throw new NotFoundException();
+                         }
+                     })
+                     .onFailure(NoSuchElementException.class)
+                     .transform(throwable -> new NotFoundException());
     }
 
     @GET
@@ -1,32 +1,69 @@
 package com.taumaturgo.infrastructure.rest;
 
 import com.taumaturgo.domain.models.ProfilePhoto;
+import com.taumaturgo.infrastructure.imaging.ImagePreprocessor;
 import com.taumaturgo.infrastructure.rest.client.StableDiffusion;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.transaction.Transactional;
-import org.apache.commons.io.FileUtils;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.Base64;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 @ApplicationScoped
 public class StableDiffusionService {
     private final StableDiffusion stableDiffusion;
+    private final ImagePreprocessor preprocessor;
 
-    public StableDiffusionService(@RestClient StableDiffusion stableDiffusion) {
+    public StableDiffusionService(StableDiffusion stableDiffusion, ImagePreprocessor preprocessor) {
         this.stableDiffusion = stableDiffusion;
+        this.preprocessor = preprocessor;
     }
 
-    @Transactional
-    public Uni<String> generate(ProfilePhoto profilePhoto) throws IOException {
-        var fileContent = FileUtils.readFileToByteArray(new File(profilePhoto.originalPhoto()));
-        var encodedString = Base64.getEncoder().encodeToString(fileContent);
+    public StableDiffusion.Request request(ProfilePhoto profilePhoto) {
+        return new StableDiffusion.Request(Path.of(profilePhoto.originalPhoto()));
+    }
+
+    // The upload is shrunk to the output size first; the S3 original keeps the full resolution.
+    public Uni<Path> prepare(ProfilePhoto profilePhoto) {
+        var request = request(profilePhoto);
+        return preprocessor.normalize(Path.of(profilePhoto.originalPhoto()), request.width(), request.height());
+    }
+
+    // SHA-256 of the upload as it was received, so it is known before any preprocessing.
+    public Uni<String> contentHash(ProfilePhoto profilePhoto) {
+        return preprocessor.hash(Path.of(profilePhoto.originalPhoto()));
+    }
 
-        return stableDiffusion.img2img(new StableDiffusion.Request(encodedString))
+    // input comes from prepare and stays owned by the caller.
+    public Uni<Path> generate(ProfilePhoto profilePhoto, Path input) {
+        return stableDiffusion.img2img(request(profilePhoto).withInitImages(List.of(input)))
                               .onItem()
-                              .transform(response -> response.images().stream().findFirst().orElseThrow());
+                              .transform(response -> {
+                                  var images = response.images();
+                                  // anything after the first image is a ControlNet detect map we do not keep
+                                  images.stream().skip(1).forEach(this::deleteSilently);
+                                  return images.stream().findFirst().orElseThrow();
+                              });
+    }
+
+    public Uni<Path> generate(ProfilePhoto profilePhoto) {
+        var original = Path.of(profilePhoto.originalPhoto());
+        return prepare(profilePhoto).chain(prepared -> generate(profilePhoto, prepared)
+                .onTermination()
+                .invoke(() -> {
+                    if (!prepared.equals(original)) {
+                        deleteSilently(prepared);
+                    }
+                }));
+    }
+
+    private void deleteSilently(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (Exception exception) {
+            Logger.getLogger(getClass()).warnf(exception, "Failed to cleanup temp file %s", path);
+        }
     }
 }
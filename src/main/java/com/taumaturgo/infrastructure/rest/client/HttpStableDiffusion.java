@@ -0,0 +1,110 @@
+package com.taumaturgo.infrastructure.rest.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Uni;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// One A1111 backend; StableDiffusionPool owns the instances and shares a single HttpClient between them.
+class HttpStableDiffusion implements StableDiffusion {
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final URI img2imgUri;
+    private final Duration readTimeout;
+    private final Executor responses;
+
+    // The response body is read and decoded on responses, since reading it blocks until A1111 has sent everything.
+    HttpStableDiffusion(HttpClient client, ObjectMapper mapper, URI baseUri, Duration readTimeout, Executor responses) {
+        this.client = client;
+        this.mapper = mapper;
+        this.img2imgUri = baseUri.resolve("/sdapi/v1/img2img");
+        this.readTimeout = readTimeout;
+        this.responses = responses;
+    }
+
+    @Override
+    public Uni<Response> img2img(Request request) {
+        var httpRequest = HttpRequest.newBuilder(img2imgUri)
+                                     .timeout(readTimeout)
+                                     .header("Content-Type", "application/json")
+                                     .header("Accept", "application/json")
+                                     .POST(JsonBodyPublishers.ofImg2img(mapper, request))
+                                     .build();
+
+        return Uni.createFrom()
+                  .completionStage(() -> client.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream()))
+                  .emitOn(responses)
+                  .onItem()
+                  .transform(this::toResponse);
+    }
+
+    private Response toResponse(HttpResponse<InputStream> response) {
+        try (var body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Stable Diffusion returned HTTP %d".formatted(response.statusCode()));
+            }
+            return new Response(decodeImages(body));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    // Walks the response with the streaming parser and Base64-decodes each entry of "images" straight into a
+    // temporary file, so neither the encoded String nor the decoded bytes are ever held in heap.
+    List<Path> decodeImages(InputStream body) throws IOException {
+        var images = new ArrayList<Path>();
+        try (var parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected Stable Diffusion response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var field = parser.currentName();
+                parser.nextToken();
+                if ("images".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                        images.add(decodeToFile(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException | RuntimeException exception) {
+            images.forEach(HttpStableDiffusion::deleteQuietly);
+            throw exception;
+        }
+        return images;
+    }
+
+    private static Path decodeToFile(JsonParser parser) throws IOException {
+        var file = Files.createTempFile("stable-diffusion-", ".png");
+        try (var output = Files.newOutputStream(file)) {
+            parser.readBinaryValue(output);
+            return file;
+        } catch (IOException | RuntimeException exception) {
+            deleteQuietly(file);
+            throw exception;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // best effort cleanup of a partially written temp file
+        }
+    }
+}
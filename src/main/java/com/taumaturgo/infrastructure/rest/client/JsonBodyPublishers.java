@@ -0,0 +1,155 @@
+package com.taumaturgo.infrastructure.rest.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class JsonBodyPublishers {
+    // a multiple of 3, so the Base64 of consecutive chunks concatenates into the Base64 of the whole file
+    private static final int CHUNK_SIZE = 48 * 1024;
+
+    private JsonBodyPublishers() {
+    }
+
+    // The parameters are serialized up front and the init images are spliced in front of them, each read and
+    // Base64-encoded a chunk at a time as the HTTP client asks for more; no thread waits on the body.
+    static HttpRequest.BodyPublisher ofImg2img(ObjectMapper mapper, StableDiffusion.Request request) {
+        byte[] parameters;
+        try {
+            parameters = mapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        var parts = new ArrayList<HttpRequest.BodyPublisher>();
+        parts.add(ascii("{\"init_images\":["));
+        for (int i = 0; i < request.initImages().size(); i++) {
+            parts.add(ascii(i == 0 ? "\"" : "\",\""));
+            parts.add(base64(request.initImages().get(i)));
+        }
+        parts.add(ascii(request.initImages().isEmpty() ? "]," : "\"],"));
+        parts.add(HttpRequest.BodyPublishers.ofByteArray(parameters, 1, parameters.length - 1));
+        return HttpRequest.BodyPublishers.concat(parts.toArray(HttpRequest.BodyPublisher[]::new));
+    }
+
+    private static HttpRequest.BodyPublisher ascii(String json) {
+        return HttpRequest.BodyPublishers.ofString(json, StandardCharsets.US_ASCII);
+    }
+
+    private static HttpRequest.BodyPublisher base64(Path file) {
+        try {
+            var size = Files.size(file);
+            if (size == 0) {
+                return HttpRequest.BodyPublishers.noBody();
+            }
+            return HttpRequest.BodyPublishers.fromPublisher(subscriber -> subscriber.onSubscribe(new Base64FileSubscription(file, subscriber)),
+                                                            (size + 2) / 3 * 4);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    // Reads happen in request(), on whichever client thread asks, the same way BodyPublishers.ofFile reads.
+    private static final class Base64FileSubscription implements Flow.Subscription {
+        private final Path file;
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger drains = new AtomicInteger();
+        private volatile boolean cancelled;
+        private FileChannel channel;
+        private boolean endOfFile;
+        private boolean done;
+
+        private Base64FileSubscription(Path file, Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.file = file;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        // Only one thread drains at a time; a request() from inside onNext is picked up by the loop instead of recursing.
+        private void drain() {
+            if (drains.getAndIncrement() != 0) {
+                return;
+            }
+            var missed = 1;
+            do {
+                try {
+                    while (!done && !cancelled && (endOfFile || demand.get() > 0)) {
+                        var chunk = endOfFile ? null : nextChunk();
+                        if (chunk == null) {
+                            done = true;
+                            close();
+                            subscriber.onComplete();
+                        } else {
+                            demand.decrementAndGet();
+                            subscriber.onNext(chunk);
+                        }
+                    }
+                } catch (IOException exception) {
+                    done = true;
+                    close();
+                    subscriber.onError(exception);
+                }
+                if (cancelled) {
+                    close();
+                }
+                missed = drains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        // Fills the chunk completely unless the file ends, so every chunk but the last encodes without padding.
+        private ByteBuffer nextChunk() throws IOException {
+            if (channel == null) {
+                channel = FileChannel.open(file);
+            }
+            var raw = ByteBuffer.allocate(CHUNK_SIZE);
+            while (raw.hasRemaining()) {
+                if (channel.read(raw) < 0) {
+                    endOfFile = true;
+                    break;
+                }
+            }
+            raw.flip();
+            return raw.hasRemaining() ? Base64.getEncoder().encode(raw) : null;
+        }
+
+        private void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // read-only channel, nothing was lost
+                }
+                channel = null;
+            }
+        }
+    }
+}
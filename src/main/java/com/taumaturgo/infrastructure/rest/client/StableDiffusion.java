@@ -1,21 +1,19 @@
 package com.taumaturgo.infrastructure.rest.client;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.smallrye.mutiny.Uni;
-import jakarta.ws.rs.POST;
-import jakarta.ws.rs.Path;
-import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
+import java.nio.file.Path;
 import java.util.List;
 
-@RegisterRestClient(configKey="stable-diffusion-api")
 public interface StableDiffusion {
 
-    @POST
-    @Path("/sdapi/v1/img2img")
     Uni<Response> img2img(Request request);
 
-    record Request(@JsonProperty("init_images") List<String> initImages,
+    // init_images is sent as the Base64 of each file; JsonBodyPublishers writes it, so Jackson skips it.
+    record Request(@JsonIgnore List<Path> initImages,
                    String prompt,
                    @JsonProperty("negative_prompt") String negativePrompt,
                    @JsonProperty("sampler_index") String samplerIndex,
@@ -29,7 +27,7 @@ public interface StableDiffusion {
                    @JsonProperty("seed_resize_from_w") Integer seedResizeFromWidth,
                    @JsonProperty("seed_resize_from_h") Integer seedResizeFromHeight,
                    @JsonProperty("alwayson_scripts") Script alwaysonScripts) {
-        public Request(String initImage) {
+        public Request(Path initImage) {
             this(List.of(initImage),
                  "modern disney style",
                  "ugly, disfigured",
@@ -45,12 +43,31 @@ public interface StableDiffusion {
                  0,
                  new Script(
                          new Script.ControlNet(List.of(
-                                 new Script.ControlNet.Arg(initImage, "lineart_realistic", "control_v11p_sd15_lineart [43d4be0d]", "ControlNet is more important", true)
+                                 // no input_image: ControlNet falls back to the img2img init image, so it is sent once
+                                 new Script.ControlNet.Arg(null, "lineart_realistic", "control_v11p_sd15_lineart [43d4be0d]", "ControlNet is more important", true)
                          ))));
         }
 
+        public Request withInitImages(List<Path> images) {
+            return new Request(images,
+                               prompt,
+                               negativePrompt,
+                               samplerIndex,
+                               samplerName,
+                               seed,
+                               denoisingStrength,
+                               cfgScale,
+                               steps,
+                               width,
+                               height,
+                               seedResizeFromWidth,
+                               seedResizeFromHeight,
+                               alwaysonScripts);
+        }
+
         public record Script(ControlNet controlnet) {
             public record ControlNet(List<Arg> args) {
+                @JsonInclude(JsonInclude.Include.NON_NULL)
                 public record Arg(@JsonProperty("input_image") String inputImage,
                                   String module,
                                   String model,
@@ -61,7 +78,8 @@ public interface StableDiffusion {
         }
     }
 
-    record Response(List<String> images) {
+    // Generated images, Base64-decoded into temporary files owned by the caller.
+    record Response(List<Path> images) {
 
     }
 }
@@ -0,0 +1,83 @@
+package com.taumaturgo.infrastructure.rest.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Mutable state is guarded by the owning StableDiffusionPool; inFlight is atomic only so gauges can read it.
+final class StableDiffusionBackend {
+    private final URI uri;
+    private final StableDiffusion client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer succeeded;
+    private final Timer failed;
+    private int consecutiveFailures;
+    private volatile Instant ejectedUntil = Instant.MIN;
+
+    StableDiffusionBackend(URI uri, StableDiffusion client, MeterRegistry registry) {
+        this.uri = uri;
+        this.client = client;
+        var backend = uri.getAuthority();
+        this.succeeded = Timer.builder("stable_diffusion.requests")
+                              .tag("backend", backend)
+                              .tag("outcome", "success")
+                              .register(registry);
+        this.failed = Timer.builder("stable_diffusion.requests")
+                           .tag("backend", backend)
+                           .tag("outcome", "failure")
+                           .register(registry);
+        Gauge.builder("stable_diffusion.in_flight", inFlight, AtomicInteger::get)
+             .tag("backend", backend)
+             .register(registry);
+        Gauge.builder("stable_diffusion.ejected", this, current -> current.isEjected(Instant.now()) ? 1 : 0)
+             .tag("backend", backend)
+             .register(registry);
+    }
+
+    URI uri() {
+        return uri;
+    }
+
+    StableDiffusion client() {
+        return client;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    boolean isEjected(Instant now) {
+        return now.isBefore(ejectedUntil);
+    }
+
+    void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    void giveBack() {
+        inFlight.decrementAndGet();
+    }
+
+    void succeeded(long nanos) {
+        inFlight.decrementAndGet();
+        consecutiveFailures = 0;
+        succeeded.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Returns true when this failure ejected the backend.
+    boolean failed(long nanos, int ejectAfter, Instant ejectUntil) {
+        inFlight.decrementAndGet();
+        failed.record(nanos, TimeUnit.NANOSECONDS);
+        if (++consecutiveFailures < ejectAfter) {
+            return false;
+        }
+        consecutiveFailures = 0;
+        ejectedUntil = ejectUntil;
+        return true;
+    }
+}
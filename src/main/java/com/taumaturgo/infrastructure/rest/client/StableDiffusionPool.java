@@ -0,0 +1,184 @@
+package com.taumaturgo.infrastructure.rest.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taumaturgo.infrastructure.async.ExecutionMode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// Sends each call to the least-loaded backend, queues callers FIFO when all are full, and ejects failing backends.
+@ApplicationScoped
+public class StableDiffusionPool implements StableDiffusion {
+    private final List<StableDiffusionBackend> backends;
+    private final Deque<CompletableFuture<StableDiffusionBackend>> waiting = new ArrayDeque<>();
+    private final int maxConcurrency;
+    private final int ejectAfterFailures;
+    private final Duration ejection;
+    private int nextCandidate;
+
+    @Inject
+    public StableDiffusionPool(ObjectMapper mapper,
+                               MeterRegistry registry,
+                               @ConfigProperty(name = "avatarforge.stable-diffusion.urls") List<URI> urls,
+                               @ConfigProperty(name = "avatarforge.stable-diffusion.connect-timeout", defaultValue = "PT10S") Duration connectTimeout,
+                               @ConfigProperty(name = "avatarforge.stable-diffusion.read-timeout", defaultValue = "PT120S") Duration readTimeout,
+                               @ConfigProperty(name = "avatarforge.stable-diffusion.max-concurrency", defaultValue = "1") int maxConcurrency,
+                               @ConfigProperty(name = "avatarforge.stable-diffusion.eject-after-failures", defaultValue = "3") int ejectAfterFailures,
+                               @ConfigProperty(name = "avatarforge.stable-diffusion.ejection", defaultValue = "PT30S") Duration ejection,
+                               @ConfigProperty(name = "avatarforge.execution.mode", defaultValue = "platform") ExecutionMode executionMode) {
+        this(urls,
+             clientFactory(mapper, connectTimeout, readTimeout, executionMode),
+             registry,
+             maxConcurrency,
+             ejectAfterFailures,
+             ejection);
+    }
+
+    StableDiffusionPool(List<URI> urls,
+                        Function<URI, StableDiffusion> clients,
+                        MeterRegistry registry,
+                        int maxConcurrency,
+                        int ejectAfterFailures,
+                        Duration ejection) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one Stable Diffusion backend must be configured");
+        }
+        this.backends = urls.stream()
+                            .map(uri -> new StableDiffusionBackend(uri, clients.apply(uri), registry))
+                            .toList();
+        this.maxConcurrency = maxConcurrency;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejection = ejection;
+        Gauge.builder("stable_diffusion.waiting", this, StableDiffusionPool::waitingCount).register(registry);
+    }
+
+    @Override
+    public Uni<Response> img2img(Request request) {
+        return acquire().chain(backend -> {
+            var started = System.nanoTime();
+            return backend.client()
+                          .img2img(request)
+                          .onTermination()
+                          .invoke((response, failure, cancelled) -> release(backend, failure, cancelled, System.nanoTime() - started));
+        });
+    }
+
+    synchronized int waitingCount() {
+        return waiting.size();
+    }
+
+    private Uni<StableDiffusionBackend> acquire() {
+        return Uni.createFrom().deferred(() -> {
+            var slot = new CompletableFuture<StableDiffusionBackend>();
+            synchronized (this) {
+                var backend = select();
+                if (backend != null) {
+                    slot.complete(backend);
+                } else {
+                    waiting.addLast(slot);
+                }
+            }
+            return Uni.createFrom()
+                      .completionStage(slot)
+                      .onCancellation()
+                      .invoke(() -> abandon(slot));
+        });
+    }
+
+    // A slot handed over just before the caller went away goes back to the pool.
+    private void abandon(CompletableFuture<StableDiffusionBackend> slot) {
+        synchronized (this) {
+            waiting.remove(slot);
+        }
+        if (!slot.cancel(false) && !slot.isCompletedExceptionally()) {
+            giveBack(slot.join());
+        }
+    }
+
+    private void release(StableDiffusionBackend backend, Throwable failure, boolean cancelled, long nanos) {
+        synchronized (this) {
+            if (cancelled) {
+                backend.giveBack();
+            } else if (failure == null) {
+                backend.succeeded(nanos);
+            } else if (backend.failed(nanos, ejectAfterFailures, Instant.now().plus(ejection))) {
+                Logger.getLogger(getClass()).warnf(failure, "Ejecting Stable Diffusion backend %s for %s", backend.uri(), ejection);
+            }
+        }
+        dispatchWaiting();
+    }
+
+    private void giveBack(StableDiffusionBackend backend) {
+        synchronized (this) {
+            backend.giveBack();
+        }
+        dispatchWaiting();
+    }
+
+    private void dispatchWaiting() {
+        while (true) {
+            CompletableFuture<StableDiffusionBackend> slot;
+            StableDiffusionBackend backend;
+            synchronized (this) {
+                if (waiting.isEmpty() || (backend = select()) == null) {
+                    return;
+                }
+                slot = waiting.pollFirst();
+            }
+            if (!slot.complete(backend)) {
+                synchronized (this) {
+                    backend.giveBack();
+                }
+            }
+        }
+    }
+
+    // Least outstanding requests wins; the scan starts after the last pick so ties rotate across backends.
+    private StableDiffusionBackend select() {
+        var now = Instant.now();
+        var allEjected = backends.stream().allMatch(backend -> backend.isEjected(now));
+        StableDiffusionBackend selected = null;
+        var selectedIndex = -1;
+        for (int offset = 0; offset < backends.size(); offset++) {
+            var index = (nextCandidate + offset) % backends.size();
+            var candidate = backends.get(index);
+            if (candidate.inFlight() >= maxConcurrency || (!allEjected && candidate.isEjected(now))) {
+                continue;
+            }
+            if (selected == null || candidate.inFlight() < selected.inFlight()) {
+                selected = candidate;
+                selectedIndex = index;
+            }
+        }
+        if (selected != null) {
+            selected.acquire();
+            nextCandidate = (selectedIndex + 1) % backends.size();
+        }
+        return selected;
+    }
+
+    private static Function<URI, StableDiffusion> clientFactory(ObjectMapper mapper,
+                                                                Duration connectTimeout,
+                                                                Duration readTimeout,
+                                                                ExecutionMode executionMode) {
+        var client = HttpClient.newBuilder()
+                               .version(HttpClient.Version.HTTP_1_1)
+                               .connectTimeout(connectTimeout)
+                               .build();
+        return uri -> new HttpStableDiffusion(client, mapper, uri, readTimeout, executionMode.blockingExecutor());
+    }
+}
@@ -0,0 +1,11 @@
+ALTER TABLE profile_photo_jobs
+ADD COLUMN IF NOT EXISTS virtual_start BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_profile_photo_jobs_status_virtual_start ON profile_photo_jobs (status, virtual_start, created_at);
+
+CREATE TABLE IF NOT EXISTS customer_schedules (
+  customer_id VARCHAR(36) NOT NULL,
+  virtual_finish BIGINT NOT NULL,
+  PRIMARY KEY (customer_id),
+  INDEX idx_customer_schedules_virtual_finish (virtual_finish)
+);
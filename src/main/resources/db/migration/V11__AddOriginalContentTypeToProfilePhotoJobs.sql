@@ -0,0 +1,2 @@
+ALTER TABLE profile_photo_jobs
+ADD COLUMN IF NOT EXISTS original_content_type VARCHAR(50);
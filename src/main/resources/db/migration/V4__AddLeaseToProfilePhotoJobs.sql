@@ -0,0 +1,7 @@
+ALTER TABLE profile_photo_jobs
+ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(100),
+ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP NULL,
+ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_profile_photo_jobs_status_created ON profile_photo_jobs (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_profile_photo_jobs_status_lease ON profile_photo_jobs (status, lease_expires_at);
@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS profile_photo_job_events (
+  seq BIGINT NOT NULL AUTO_INCREMENT,
+  job_id VARCHAR(36) NOT NULL,
+  customer_id VARCHAR(36) NOT NULL,
+  status VARCHAR(30) NOT NULL,
+  original_photo_url VARCHAR(255),
+  generated_photo_url VARCHAR(255),
+  error VARCHAR(255),
+  job_created_at TIMESTAMP NULL,
+  job_updated_at TIMESTAMP NULL,
+  origin_node VARCHAR(100) NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (seq),
+  INDEX idx_profile_photo_job_events_created (created_at)
+);
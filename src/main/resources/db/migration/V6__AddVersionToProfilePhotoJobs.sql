@@ -0,0 +1,2 @@
+ALTER TABLE profile_photo_jobs
+ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS generation_results (
+  cache_key CHAR(64) NOT NULL,
+  original_photo_url VARCHAR(255) NOT NULL,
+  generated_photo_url VARCHAR(255) NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (cache_key)
+);
@@ -0,0 +1,11 @@
+ALTER TABLE profile_photos
+ADD COLUMN IF NOT EXISTS variants TEXT;
+
+ALTER TABLE profile_photo_jobs
+ADD COLUMN IF NOT EXISTS variants TEXT;
+
+ALTER TABLE profile_photo_job_events
+ADD COLUMN IF NOT EXISTS variants TEXT;
+
+ALTER TABLE generation_results
+ADD COLUMN IF NOT EXISTS variants TEXT;
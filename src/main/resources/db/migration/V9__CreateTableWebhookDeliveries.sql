@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS webhook_deliveries (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  callback_url VARCHAR(255) NOT NULL,
+  job_id VARCHAR(36) NOT NULL,
+  payload TEXT NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  lease_owner VARCHAR(100),
+  lease_expires_at TIMESTAMP NULL,
+  last_error VARCHAR(255),
+  abandoned_at TIMESTAMP NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  INDEX idx_webhook_deliveries_due (abandoned_at, next_attempt_at)
+);
@@ -3,6 +3,7 @@ CREATE TABLE IF NOT EXISTS profile_photos (
   id VARCHAR(36) NOT NULL,
   original_photo VARCHAR(200),
   generated_photo VARCHAR(200),
+  variants TEXT,
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (customer_id, id)
@@ -18,11 +19,70 @@ CREATE TABLE IF NOT EXISTS profile_photo_jobs (
   customer_id VARCHAR(36) NOT NULL,
   profile_photo_id VARCHAR(36) NOT NULL,
   original_photo_path VARCHAR(255),
+  original_content_type VARCHAR(50),
   generated_photo_url VARCHAR(255),
+  variants TEXT,
   callback_url VARCHAR(255),
   status VARCHAR(30) NOT NULL,
   error VARCHAR(255),
+  lease_owner VARCHAR(100),
+  lease_expires_at TIMESTAMP NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  version BIGINT NOT NULL DEFAULT 0,
+  virtual_start BIGINT NOT NULL DEFAULT 0,
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-  PRIMARY KEY (id)
+  PRIMARY KEY (id),
+  INDEX idx_profile_photo_jobs_status_created (status, created_at),
+  INDEX idx_profile_photo_jobs_status_lease (status, lease_expires_at),
+  INDEX idx_profile_photo_jobs_status_virtual_start (status, virtual_start, created_at)
+);
+
+CREATE TABLE IF NOT EXISTS customer_schedules (
+  customer_id VARCHAR(36) NOT NULL,
+  virtual_finish BIGINT NOT NULL,
+  PRIMARY KEY (customer_id),
+  INDEX idx_customer_schedules_virtual_finish (virtual_finish)
+);
+
+CREATE TABLE IF NOT EXISTS profile_photo_job_events (
+  seq BIGINT NOT NULL AUTO_INCREMENT,
+  job_id VARCHAR(36) NOT NULL,
+  customer_id VARCHAR(36) NOT NULL,
+  status VARCHAR(30) NOT NULL,
+  original_photo_url VARCHAR(255),
+  generated_photo_url VARCHAR(255),
+  variants TEXT,
+  error VARCHAR(255),
+  job_created_at TIMESTAMP NULL,
+  job_updated_at TIMESTAMP NULL,
+  origin_node VARCHAR(100) NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (seq),
+  INDEX idx_profile_photo_job_events_created (created_at)
+);
+
+CREATE TABLE IF NOT EXISTS generation_results (
+  cache_key CHAR(64) NOT NULL,
+  original_photo_url VARCHAR(255) NOT NULL,
+  generated_photo_url VARCHAR(255) NOT NULL,
+  variants TEXT,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (cache_key)
+);
+
+CREATE TABLE IF NOT EXISTS webhook_deliveries (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  callback_url VARCHAR(255) NOT NULL,
+  job_id VARCHAR(36) NOT NULL,
+  payload TEXT NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  lease_owner VARCHAR(100),
+  lease_expires_at TIMESTAMP NULL,
+  last_error VARCHAR(255),
+  abandoned_at TIMESTAMP NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  INDEX idx_webhook_deliveries_due (abandoned_at, next_attempt_at)
 );
@@ -0,0 +1,92 @@
+package com.taumaturgo.application;
+
+import com.taumaturgo.application.dto.ProfilePhoto;
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.domain.services.ProfilePhotoCreateService;
+import com.taumaturgo.infrastructure.async.AdmissionControl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ApplicationServiceTest {
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1, 2, 3};
+
+    private Path uploads;
+
+    @BeforeEach
+    void createUploadsDirectory() throws IOException {
+        uploads = Files.createTempDirectory("uploads");
+    }
+
+    @AfterEach
+    void deleteUploadsDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(uploads)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void persistProfilePhotoDeletesTheMovedUploadWhenNoJobWasCreated() throws IOException {
+        var uploaded = Files.createTempFile(uploads, "resteasy-reactive", ".upload");
+        Files.write(uploaded, PNG);
+        var databaseDown = new ProfilePhotoCreateService(null, null, null) {
+            @Override
+            public ProfilePhotoJobStatus submit(String customerId, com.taumaturgo.domain.models.ProfilePhoto profilePhoto, String callbackUrl) {
+                throw new IllegalStateException("database is down");
+            }
+        };
+        var service = new ApplicationService(null, databaseDown, null, new AdmissionControl(null, null, new SimpleMeterRegistry()));
+
+        var photo = ProfilePhoto.create(new SpooledUpload(uploaded), Long.MAX_VALUE);
+        assertThrows(IllegalStateException.class, () -> service.persistProfilePhoto("customer-1", photo, null));
+
+        try (var files = Files.list(uploads)) {
+            assertEquals(List.of(), files.toList(), "neither the upload nor its moved copy should be left behind");
+        }
+    }
+
+    private record SpooledUpload(Path filePath) implements FileUpload {
+        @Override
+        public String name() {
+            return "photo";
+        }
+
+        @Override
+        public String fileName() {
+            return "photo.png";
+        }
+
+        @Override
+        public long size() {
+            try {
+                return Files.size(filePath);
+            } catch (IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+
+        @Override
+        public String contentType() {
+            return "image/png";
+        }
+
+        @Override
+        public String charSet() {
+            return null;
+        }
+    }
+}
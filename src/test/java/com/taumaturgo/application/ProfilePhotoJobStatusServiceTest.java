@@ -0,0 +1,156 @@
+package com.taumaturgo.application;
+
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.application.events.ProfilePhotoJobEvents;
+import com.taumaturgo.domain.models.JobQueueStats;
+import com.taumaturgo.domain.models.ProcessingStatus;
+import com.taumaturgo.domain.models.ProfilePhoto;
+import com.taumaturgo.domain.models.ProfilePhotoJob;
+import com.taumaturgo.domain.repositories.ProfilePhotoJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProfilePhotoJobStatusServiceTest {
+    private final ProfilePhotoJobEvents events = new ProfilePhotoJobEvents();
+    private final SingleJobRepository jobRepository = new SingleJobRepository();
+    private final ProfilePhotoJobStatusService service = new ProfilePhotoJobStatusService(jobRepository,
+                                                                                                    events,
+                                                                                                    new SimpleMeterRegistry(),
+                                                                                                    100,
+                                                                                                    Duration.ofMinutes(1),
+                                                                                                    ForkJoinPool.commonPool()::execute);
+
+    @Test
+    void waitForCompletionResolvesOnTerminalEventWithSingleRead() {
+        var wait = service.waitForCompletion("job-1", Duration.ofSeconds(30)).subscribeAsCompletionStage();
+
+        awaitReads(1);
+        events.publish(status(ProcessingStatus.DONE));
+
+        assertEquals(ProcessingStatus.DONE, wait.join().status());
+        assertEquals(1, jobRepository.reads.get());
+    }
+
+    @Test
+    void waitForCompletionReturnsCurrentStatusAtDeadline() {
+        var status = service.waitForCompletion("job-1", Duration.ofMillis(50)).await().indefinitely();
+
+        assertEquals(ProcessingStatus.PROCESSING, status.status());
+        assertEquals(1, jobRepository.reads.get());
+    }
+
+    @Test
+    void waitForCompletionRereadsAtDeadlineInsteadOfReturningTheFirstRead() {
+        jobRepository.stored = ProcessingStatus.PENDING;
+        var wait = service.waitForCompletion("job-1", Duration.ofMillis(200)).subscribeAsCompletionStage();
+
+        awaitReads(1);
+        events.publish(status(ProcessingStatus.PROCESSING));
+
+        assertEquals(ProcessingStatus.PROCESSING, wait.join().status());
+        assertEquals(1, jobRepository.reads.get(), "the transition was served from the cache");
+    }
+
+    @Test
+    void concurrentLookupsShareOneRead() {
+        jobRepository.gate = new CountDownLatch(1);
+        var lookups = IntStream.range(0, 20)
+                               .mapToObj(i -> service.findAsync("job-1").subscribeAsCompletionStage())
+                               .toList();
+
+        jobRepository.gate.countDown();
+        lookups.forEach(lookup -> assertEquals(ProcessingStatus.PROCESSING, lookup.join().status()));
+
+        assertEquals(1, jobRepository.reads.get());
+    }
+
+    @Test
+    void publishedTransitionsAreServedWithoutRereading() {
+        service.findAsync("job-1").await().indefinitely();
+        events.publish(status(ProcessingStatus.DONE));
+
+        assertEquals(ProcessingStatus.DONE, service.findAsync("job-1").await().indefinitely().status());
+        assertEquals(1, jobRepository.reads.get());
+    }
+
+    private void awaitReads(int expected) {
+        var deadline = Instant.now().plusSeconds(5);
+        while (jobRepository.reads.get() < expected && Instant.now().isBefore(deadline)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static ProfilePhotoJobStatus status(ProcessingStatus status) {
+        return ProfilePhotoJobStatus.fromDomain(job(status));
+    }
+
+    private static ProfilePhotoJob job(ProcessingStatus status) {
+        var now = Instant.now();
+        return new ProfilePhotoJob("job-1", "customer-1", new ProfilePhoto("photo-1", "/tmp/photo", null),
+                                   status, null, null, null, null, 1, 1, now, now);
+    }
+
+    private static class SingleJobRepository implements ProfilePhotoJobRepository {
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile CountDownLatch gate;
+        private volatile ProcessingStatus stored = ProcessingStatus.PROCESSING;
+
+        private void awaitGate() {
+            try {
+                if (gate != null) {
+                    gate.await();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public Optional<ProfilePhotoJob> findById(String jobId) {
+            reads.incrementAndGet();
+            awaitGate();
+            return Optional.of(job(stored));
+        }
+
+        @Override
+        public ProfilePhotoJob create(String customerId, ProfilePhoto profilePhoto, String callbackUrl) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ProfilePhotoJob> transition(ProfilePhotoJob job,
+                                                    ProcessingStatus status,
+                                                    String originalPhotoUrl,
+                                                    String generatedPhotoUrl,
+                                                    Map<String, String> variants,
+                                                    String error) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ProfilePhotoJob> claimNext(String owner, Duration lease) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int renewLeases(String owner, Duration lease) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public JobQueueStats queueStats() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.taumaturgo.application.dto;
+
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilePhotoTest {
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1, 2, 3};
+    private static final long MAX_BYTES = 1024;
+
+    private Path uploads;
+
+    @BeforeEach
+    void createUploadsDirectory() throws IOException {
+        uploads = Files.createTempDirectory("uploads");
+    }
+
+    @AfterEach
+    void deleteUploadsDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(uploads)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void toDomainMovesTheSpooledUploadInsteadOfCopyingIt() throws IOException {
+        var uploaded = upload(PNG);
+
+        var photo = ProfilePhoto.create(new SpooledUpload(uploaded, "image/png"), MAX_BYTES).toDomain();
+
+        var spooled = Path.of(photo.originalPhoto());
+        assertFalse(Files.exists(uploaded));
+        assertEquals(uploads, spooled.getParent());
+        assertEquals(photo.id() + ".png", spooled.getFileName().toString().substring("profile-photo-".length()));
+        assertArrayEquals(PNG, Files.readAllBytes(spooled));
+        assertEquals("image/png", photo.originalContentType());
+    }
+
+    @Test
+    void toDomainCarriesTheDetectedTypeRatherThanTheDeclaredOne() throws IOException {
+        var jpeg = upload(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10});
+
+        var photo = ProfilePhoto.create(new SpooledUpload(jpeg, "application/octet-stream"), MAX_BYTES).toDomain();
+
+        assertEquals("image/jpeg", photo.originalContentType());
+        assertEquals(".jpg", photo.originalPhoto().substring(photo.originalPhoto().lastIndexOf('.')));
+    }
+
+    @Test
+    void createRejectsUploadsThatAreNotTheImageTheyClaimToBe() throws IOException {
+        var text = upload("not an image".getBytes());
+        var png = upload(PNG);
+
+        assertThrows(IllegalArgumentException.class, () -> ProfilePhoto.create(new SpooledUpload(text, "image/png"), MAX_BYTES));
+        assertThrows(IllegalArgumentException.class, () -> ProfilePhoto.create(new SpooledUpload(png, "image/jpeg"), MAX_BYTES));
+        assertEquals(ProfilePhoto.Format.PNG, ProfilePhoto.create(new SpooledUpload(png, "application/octet-stream"), MAX_BYTES).format());
+    }
+
+    @Test
+    void createRejectsOversizedUploadsBeforeMovingThem() throws IOException {
+        var png = upload(PNG);
+
+        assertThrows(UploadTooLargeException.class, () -> ProfilePhoto.create(new SpooledUpload(png, "image/png"), PNG.length - 1));
+        assertTrue(Files.exists(png));
+        assertEquals(ProfilePhoto.Format.PNG, ProfilePhoto.create(new SpooledUpload(png, "image/png"), PNG.length).format());
+    }
+
+    private Path upload(byte[] content) throws IOException {
+        var file = Files.createTempFile(uploads, "resteasy-reactive", ".upload");
+        Files.write(file, content);
+        return file;
+    }
+
+    private record SpooledUpload(Path filePath, String contentType) implements FileUpload {
+        @Override
+        public String name() {
+            return "photo";
+        }
+
+        @Override
+        public String fileName() {
+            return "photo.png";
+        }
+
+        @Override
+        public long size() {
+            try {
+                return Files.size(filePath);
+            } catch (IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+
+        @Override
+        public String charSet() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.taumaturgo.application.events;
+
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.domain.models.ProcessingStatus;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProfilePhotoJobEventsTest {
+
+    @Test
+    void publishReachesOnlySubscribersOfThatCustomer() {
+        var events = new ProfilePhotoJobEvents();
+        var first = events.streamByCustomer("customer-1").subscribe().withSubscriber(AssertSubscriber.create(10));
+        var second = events.streamByCustomer("customer-2").subscribe().withSubscriber(AssertSubscriber.create(10));
+
+        events.publish(status("customer-1", "job-1"));
+
+        assertEquals(List.of("job-1"), first.getItems().stream().map(ProfilePhotoJobStatus::jobId).toList());
+        assertEquals(0, second.getItems().size());
+    }
+
+    @Test
+    void cancelledStreamsAreUnregistered() {
+        var events = new ProfilePhotoJobEvents();
+        var subscriber = events.streamByCustomer("customer-1").subscribe().withSubscriber(AssertSubscriber.create(1));
+        assertEquals(1, events.subscriberCount("customer-1"));
+
+        subscriber.cancel();
+
+        assertEquals(0, events.subscriberCount("customer-1"));
+    }
+
+    @Test
+    void slowSubscriberFailsOnceItsBufferOverflows() {
+        var events = new ProfilePhotoJobEvents(2, ProfilePhotoJobEvents.OverflowPolicy.FAIL);
+        var subscriber = events.streamByCustomer("customer-1").subscribe().withSubscriber(AssertSubscriber.create(0));
+
+        events.publish(status("customer-1", "job-1"));
+        events.publish(status("customer-1", "job-2"));
+        events.publish(status("customer-1", "job-3"));
+
+        subscriber.assertFailedWith(BackPressureFailure.class);
+        assertEquals(0, events.subscriberCount("customer-1"));
+    }
+
+    @Test
+    void dropOldestKeepsTheMostRecentUpdates() {
+        var events = new ProfilePhotoJobEvents(2, ProfilePhotoJobEvents.OverflowPolicy.DROP_OLDEST);
+        var subscriber = events.streamByCustomer("customer-1").subscribe().withSubscriber(AssertSubscriber.create(0));
+
+        events.publish(status("customer-1", "job-1"));
+        events.publish(status("customer-1", "job-2"));
+        events.publish(status("customer-1", "job-3"));
+        subscriber.request(10);
+
+        assertEquals(List.of("job-2", "job-3"), subscriber.getItems().stream().map(ProfilePhotoJobStatus::jobId).toList());
+    }
+
+    private static ProfilePhotoJobStatus status(String customerId, String jobId) {
+        var now = Instant.now();
+        return new ProfilePhotoJobStatus(jobId, customerId, ProcessingStatus.PROCESSING, null, null, null, null, now, now);
+    }
+}
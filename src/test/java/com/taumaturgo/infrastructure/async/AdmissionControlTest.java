@@ -0,0 +1,160 @@
+package com.taumaturgo.infrastructure.async;
+
+import com.taumaturgo.application.OverloadedException;
+import com.taumaturgo.domain.models.JobQueueStats;
+import com.taumaturgo.domain.models.ProcessingStatus;
+import com.taumaturgo.domain.models.ProfilePhoto;
+import com.taumaturgo.domain.models.ProfilePhotoJob;
+import com.taumaturgo.domain.repositories.ProfilePhotoJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void estimatesCompletionFromTheRateMeasuredWhileJobsWereWaiting() {
+        var admission = admissionControl(100);
+        // an idle queue finishes whatever arrives, which says nothing about capacity
+        admission.record(0, 0, 0, 0);
+        admission.record(0, 0, 50, 10 * SECOND);
+        assertTrue(admission.admit(1024).estimatedCompletion().isEmpty());
+
+        admission.record(10, 0, 0, 20 * SECOND);
+        admission.record(10, 0, 5, 30 * SECOND);
+        var estimate = admission.admit(1024).estimatedCompletion().orElseThrow();
+
+        // 10 queued, the earlier upload not yet sampled, and this one, at 0.5 jobs/s
+        var eta = Duration.between(Instant.now(), estimate);
+        assertTrue(eta.compareTo(Duration.ofSeconds(23)) > 0 && eta.compareTo(Duration.ofSeconds(24)) <= 0, eta.toString());
+    }
+
+    @Test
+    void rejectsWithTheTimeTheQueueNeedsToDrainBelowTheLimit() {
+        var admission = admissionControl(12);
+        admission.record(10, 0, 0, 0);
+        admission.record(10, 0, 5, 10 * SECOND);
+
+        admission.admit(1024);
+        admission.admit(1024);
+        var rejected = assertThrows(OverloadedException.class, () -> admission.admit(1024));
+
+        assertEquals(Duration.ofSeconds(2), rejected.retryAfter());
+        assertEquals(1.0, registry.get("admission.rejected").tag("reason", "queue_depth").counter().count());
+    }
+
+    @Test
+    void rejectsUploadsThatWouldOverflowTheSpoolWithoutAMeasuredRate() {
+        var admission = admissionControl(100);
+        admission.record(4, 4096, 0, 0);
+
+        var rejected = assertThrows(OverloadedException.class, () -> admission.admit(8192));
+
+        assertEquals(admission.maxRetryAfter, rejected.retryAfter());
+        assertEquals(1.0, registry.get("admission.rejected").tag("reason", "spooled_size").counter().count());
+    }
+
+    @Test
+    void releasedSubmissionsNoLongerCountTowardsTheLimit() {
+        var admission = admissionControl(2);
+        admission.record(1, 0, 0, 0);
+
+        var failed = admission.admit(1024);
+        assertThrows(OverloadedException.class, () -> admission.admit(1024));
+        failed.release();
+        failed.release();
+
+        admission.admit(1024);
+        assertThrows(OverloadedException.class, () -> admission.admit(1024));
+    }
+
+    @Test
+    void sampleKeepsCountingSubmissionsWhoseJobItDidNotRead() {
+        var queue = new QueueRepository();
+        var admission = admissionControl(queue, 3);
+        admission.uploadsDirectory = "target/no-uploads";
+        admission.record(0, 0, 0, 0);
+
+        var written = admission.admit(1024);
+        written.created();
+        queue.pending = 1;
+        var inFlight = admission.admit(1024);
+        queue.onRead = () -> admission.admit(1024).created();
+        admission.sample();
+
+        // the written job is read from the queue, the one admitted during the read and the one still in flight are not
+        assertThrows(OverloadedException.class, () -> admission.admit(1024));
+        inFlight.release();
+        admission.admit(1024);
+    }
+
+    private AdmissionControl admissionControl(long maxPending) {
+        return admissionControl(null, maxPending);
+    }
+
+    private AdmissionControl admissionControl(ProfilePhotoJobRepository jobRepository, long maxPending) {
+        var admission = new AdmissionControl(jobRepository, null, registry);
+        admission.enabled = true;
+        admission.maxPending = maxPending;
+        admission.maxSpooledSize = new MemorySize(BigInteger.valueOf(10 * 1024));
+        admission.maxDrainTime = Duration.ofHours(1);
+        admission.maxRetryAfter = Duration.ofMinutes(10);
+        admission.rateWindow = Duration.ofMinutes(1);
+        return admission;
+    }
+
+    private static class QueueRepository implements ProfilePhotoJobRepository {
+        private volatile long pending;
+        private volatile Runnable onRead = () -> {
+        };
+
+        @Override
+        public JobQueueStats queueStats() {
+            onRead.run();
+            return new JobQueueStats(pending, null);
+        }
+
+        @Override
+        public ProfilePhotoJob create(String customerId, ProfilePhoto profilePhoto, String callbackUrl) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ProfilePhotoJob> findById(String jobId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ProfilePhotoJob> transition(ProfilePhotoJob job,
+                                                    ProcessingStatus status,
+                                                    String originalPhotoUrl,
+                                                    String generatedPhotoUrl,
+                                                    Map<String, String> variants,
+                                                    String error) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ProfilePhotoJob> claimNext(String owner, Duration lease) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int renewLeases(String owner, Duration lease) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
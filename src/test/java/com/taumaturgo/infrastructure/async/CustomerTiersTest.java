@@ -0,0 +1,32 @@
+package com.taumaturgo.infrastructure.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CustomerTiersTest {
+
+    @Test
+    void listedCustomersAdvanceTheirClockByTheirTiersWeight() {
+        var tiers = new CustomerTiers(List.of("standard:1", "priority:4"), "standard", Optional.of(List.of("acme:priority")));
+
+        assertEquals("priority", tiers.tier("acme"));
+        assertEquals("standard", tiers.tier("someone-else"));
+        assertEquals(CustomerTiers.VIRTUAL_JOB_COST, tiers.virtualCost("someone-else"));
+        assertEquals(CustomerTiers.VIRTUAL_JOB_COST / 4, tiers.virtualCost("acme"));
+    }
+
+    @Test
+    void rejectsTiersThatAreNotConfigured() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CustomerTiers(List.of("standard:1"), "premium", Optional.empty()));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CustomerTiers(List.of("standard:1"), "standard", Optional.of(List.of("acme:premium"))));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CustomerTiers(List.of("standard:0"), "standard", Optional.empty()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.taumaturgo.infrastructure.async;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationConcurrencyLimitTest {
+    private static final long STEADY = Duration.ofSeconds(4).toNanos();
+
+    @Test
+    void growsWhileSaturatedAndLatencyHolds() {
+        var limit = new GenerationConcurrencyLimit(new SimpleMeterRegistry(), 2, 1, 16, 1.5);
+
+        for (int i = 0; i < 50; i++) {
+            saturate(limit);
+            limit.onSample(STEADY);
+        }
+
+        assertEquals(16, limit.limit(), 0.001);
+    }
+
+    @Test
+    void doesNotGrowWhenTheNodeIsIdle() {
+        var limit = new GenerationConcurrencyLimit(new SimpleMeterRegistry(), 4, 1, 16, 1.5);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(STEADY);
+        }
+
+        assertEquals(4, limit.limit(), 0.001);
+    }
+
+    @Test
+    void shrinksWhenLatencyClimbsAndOnFailures() {
+        var limit = new GenerationConcurrencyLimit(new SimpleMeterRegistry(), 12, 1, 16, 1.5);
+        saturate(limit);
+        limit.onSample(STEADY);
+        var before = limit.limit();
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(STEADY * 4);
+        }
+        var afterQueueing = limit.limit();
+        limit.onFailure();
+
+        assertTrue(afterQueueing < before, "queueing latency should lower the limit");
+        assertEquals(afterQueueing * 0.9, limit.limit(), 0.001);
+    }
+
+    @Test
+    void refusesPermitsBeyondTheLimit() {
+        var limit = new GenerationConcurrencyLimit(new SimpleMeterRegistry(), 2, 1, 16, 1.5);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.release();
+        assertTrue(limit.tryAcquire());
+    }
+
+    private static void saturate(GenerationConcurrencyLimit limit) {
+        while (limit.tryAcquire()) {
+            // take every permit so samples count as load-limited
+        }
+    }
+}
@@ -3,31 +3,62 @@ package com.taumaturgo.infrastructure.async;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
 import com.taumaturgo.application.events.ProfilePhotoJobEvents;
+import com.taumaturgo.domain.models.GenerationResult;
+import com.taumaturgo.domain.models.JobQueueStats;
 import com.taumaturgo.domain.models.ProfilePhoto;
 import com.taumaturgo.domain.models.ProfilePhotoJob;
 import com.taumaturgo.domain.models.ProcessingStatus;
+import com.taumaturgo.domain.repositories.GenerationResultRepository;
 import com.taumaturgo.domain.repositories.ProfilePhotoJobRepository;
 import com.taumaturgo.domain.repositories.ProfilePhotoPersistenceRepository;
 import com.taumaturgo.domain.repositories.ProfilePhotoStorageRepository;
+import com.taumaturgo.infrastructure.cluster.ClusterNode;
+import com.taumaturgo.infrastructure.imaging.ImagePreprocessor;
 import com.taumaturgo.infrastructure.rest.StableDiffusionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
-import java.net.http.HttpClient;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProfilePhotoAsyncProcessorTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GenerationConcurrencyLimit concurrencyLimit = new GenerationConcurrencyLimit(registry, 2, 1, 8, 1.5);
+    private final InMemoryGenerationResultRepository generationResults = new InMemoryGenerationResultRepository();
+    private final JobPipelineMetrics metrics = new JobPipelineMetrics(registry, new CustomerTiers(List.of("standard:1"), "standard", Optional.empty()));
+    private final ExecutorService database = Executors.newSingleThreadExecutor();
+    private final ProfilePhotoVariants noVariants = new ProfilePhotoVariants(new FakeStorageRepository(), registry, false, List.of(), 1);
+
+    @AfterEach
+    void shutdownPools() {
+        database.shutdownNow();
+        noVariants.shutdown();
+    }
 
     @Test
     void processJobMarksDoneNotifiesCallbackAndCleansTempFile() throws Exception {
@@ -35,7 +66,6 @@ class ProfilePhotoAsyncProcessorTest {
         Files.writeString(tempFile, "image-content");
 
         var jobRepository = new InMemoryJobRepository();
-        var persistenceRepository = new NoOpPersistenceRepository();
         var storageRepository = new FakeStorageRepository();
         var stableDiffusionService = new FakeStableDiffusionService();
         var webhookNotifier = new RecordingWebhookNotifier();
@@ -47,14 +77,9 @@ class ProfilePhotoAsyncProcessorTest {
                                                         null),
                                        "http://callback.test/hook");
 
-        var processor = new ProfilePhotoAsyncProcessor(jobRepository,
-                                                       persistenceRepository,
-                                                       storageRepository,
-                                                       stableDiffusionService,
-                                                       events,
-                                                       webhookNotifier);
+        var processor = processor(jobRepository, storageRepository, stableDiffusionService, events, webhookNotifier, noVariants);
 
-        processor.process(job.id());
+        processor.process(jobRepository.claimNext("test-node", Duration.ofMinutes(1)).orElseThrow()).await().indefinitely();
 
         var updated = jobRepository.findById(job.id()).orElseThrow();
         assertEquals(ProcessingStatus.DONE, updated.status());
@@ -62,6 +87,171 @@ class ProfilePhotoAsyncProcessorTest {
         assertFalse(Files.exists(tempFile), "temp file should be cleaned up");
         assertEquals("http://callback.test/hook", webhookNotifier.lastCallbackUrl.get());
         assertEquals(ProcessingStatus.DONE, webhookNotifier.lastStatus.get().status());
+        assertEquals(1, registry.get("jobs.stage").tag("stage", "generation").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("jobs.queue.wait").tag("tier", "standard").timer().count());
+        assertEquals(1.0, registry.get("jobs.finished").tag("outcome", "done").counter().count());
+        assertEquals(0.0, registry.get("jobs.in_flight").tag("stage", "total").gauge().value());
+    }
+
+    @Test
+    void processJobFailsOnceClaimAttemptsAreExhausted() throws Exception {
+        var tempFile = Files.createTempFile("profile-photo-test", ".png");
+        var jobRepository = new InMemoryJobRepository();
+        var webhookNotifier = new RecordingWebhookNotifier();
+        var job = jobRepository.create("customer-123",
+                                       new ProfilePhoto(UUID.randomUUID().toString(),
+                                                        tempFile.toAbsolutePath().toString(),
+                                                        null),
+                                       "http://callback.test/hook");
+
+        var processor = processor(jobRepository, new FakeStorageRepository(), new FakeStableDiffusionService(), new ProfilePhotoJobEvents(), webhookNotifier, noVariants);
+        processor.maxAttempts = 0;
+
+        processor.process(jobRepository.claimNext("test-node", Duration.ofMinutes(1)).orElseThrow()).await().indefinitely();
+
+        var updated = jobRepository.findById(job.id()).orElseThrow();
+        assertEquals(ProcessingStatus.FAILED, updated.status());
+        assertEquals(ProcessingStatus.FAILED, webhookNotifier.lastStatus.get().status());
+        assertFalse(Files.exists(tempFile), "temp file should be cleaned up");
+    }
+
+    @Test
+    void processJobDropsItsResultWhenAnotherNodeReclaimedTheJob() throws Exception {
+        var tempFile = Files.createTempFile("profile-photo-test", ".png");
+        var jobRepository = new InMemoryJobRepository();
+        var webhookNotifier = new RecordingWebhookNotifier();
+        var job = jobRepository.create("customer-123",
+                                       new ProfilePhoto(UUID.randomUUID().toString(),
+                                                        tempFile.toAbsolutePath().toString(),
+                                                        null),
+                                       "http://callback.test/hook");
+
+        var processor = processor(jobRepository, new FakeStorageRepository(), new FakeStableDiffusionService(), new ProfilePhotoJobEvents(), webhookNotifier, noVariants);
+
+        var claimed = jobRepository.claimNext("test-node", Duration.ofMinutes(1)).orElseThrow();
+        var reclaimed = jobRepository.transition(claimed, ProcessingStatus.PROCESSING, null, null, null, null).orElseThrow();
+        processor.process(claimed).await().indefinitely();
+
+        var updated = jobRepository.findById(job.id()).orElseThrow();
+        assertEquals(ProcessingStatus.PROCESSING, updated.status());
+        assertEquals(reclaimed.version(), updated.version());
+        assertNull(webhookNotifier.lastStatus.get());
+        assertTrue(Files.exists(tempFile), "the node that took the job over still reads the original");
+        Files.delete(tempFile);
+    }
+
+    @Test
+    void processJobReusesTheResultOfAnIdenticalUpload() throws Exception {
+        var jobRepository = new InMemoryJobRepository();
+        var stableDiffusionService = new FakeStableDiffusionService();
+        var processor = processor(jobRepository, new FakeStorageRepository(), stableDiffusionService, new ProfilePhotoJobEvents(), new RecordingWebhookNotifier(), noVariants);
+
+        var first = jobRepository.create("customer-123", upload("same-content"), null);
+        processor.process(jobRepository.claimNext("test-node", Duration.ofMinutes(1)).orElseThrow()).await().indefinitely();
+        var second = jobRepository.create("customer-123", upload("same-content"), null);
+        processor.process(jobRepository.claimNext("test-node", Duration.ofMinutes(1)).orElseThrow()).await().indefinitely();
+
+        var reused = jobRepository.findById(second.id()).orElseThrow();
+        assertEquals(ProcessingStatus.DONE, reused.status());
+        assertEquals(jobRepository.findById(first.id()).orElseThrow().generatedPhotoUrl(), reused.generatedPhotoUrl());
+        assertEquals(1, stableDiffusionService.generations.get());
+        assertEquals(1, stableDiffusionService.preparations.get(), "a cache hit skips preprocessing");
+        assertEquals(1.0, registry.get("jobs.generation.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void processJobReleasesTheCallerWhileGenerationIsPending() throws Exception {
+        var jobRepository = new InMemoryJobRepository();
+        var gpu = new CompletableFuture<Void>();
+        var stableDiffusionService = new FakeStableDiffusionService() {
+            @Override
+            public Uni<Path> generate(ProfilePhoto profilePhoto, Path input) {
+                return Uni.createFrom().completionStage(gpu).chain(ignored -> super.generate(profilePhoto, input));
+            }
+        };
+        var processor = processor(jobRepository, new FakeStorageRepository(), stableDiffusionService, new ProfilePhotoJobEvents(), new RecordingWebhookNotifier(), noVariants);
+
+        var jobs = new ArrayList<ProfilePhotoJob>();
+        var inFlight = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < 3; i++) {
+            jobs.add(jobRepository.create("customer-123", upload("content-" + i), null));
+            inFlight.add(processor.process(jobRepository.claimNext("test-node", Duration.ofMinutes(1)).orElseThrow())
+                                  .subscribeAsCompletionStage());
+        }
+        assertTrue(inFlight.stream().noneMatch(CompletableFuture::isDone));
+
+        gpu.complete(null);
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        for (var job : jobs) {
+            assertEquals(ProcessingStatus.DONE, jobRepository.findById(job.id()).orElseThrow().status());
+        }
+    }
+
+    @Test
+    void processJobStoresEveryVariantOfTheGeneratedPhoto() throws Exception {
+        var jobRepository = new InMemoryJobRepository();
+        var storageRepository = new FakeStorageRepository();
+        var stableDiffusionService = new FakeStableDiffusionService() {
+            @Override
+            public Uni<Path> generate(ProfilePhoto profilePhoto, Path input) {
+                return super.generate(profilePhoto, input).invoke(path -> {
+                    try {
+                        ImageIO.write(new BufferedImage(512, 512, BufferedImage.TYPE_INT_RGB), "png", path.toFile());
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            }
+        };
+        var variants = new ProfilePhotoVariants(storageRepository, registry, true, List.of("jpeg-64:jpeg:64", "png-128:png:128"), 2);
+        var processor = processor(jobRepository, storageRepository, stableDiffusionService, new ProfilePhotoJobEvents(), new RecordingWebhookNotifier(), variants);
+
+        try {
+            var job = jobRepository.create("customer-123", upload("content"), null);
+            processor.process(jobRepository.claimNext("test-node", Duration.ofMinutes(1)).orElseThrow()).await().indefinitely();
+
+            var done = jobRepository.findById(job.id()).orElseThrow();
+            assertEquals(ProcessingStatus.DONE, done.status());
+            assertEquals(List.of("jpeg-64", "png-128"), List.copyOf(done.profilePhoto().variants().keySet()));
+            assertEquals("image/jpeg", storageRepository.variantContentTypes.get("jpeg-64"));
+            assertEquals("image/png", storageRepository.variantContentTypes.get("png-128"));
+            assertEquals(done.profilePhoto().variants(), ProfilePhotoJobStatus.fromDomain(done).variants());
+        } finally {
+            variants.shutdown();
+        }
+    }
+
+    private ProfilePhotoAsyncProcessor processor(InMemoryJobRepository jobRepository,
+                                                 ProfilePhotoStorageRepository storageRepository,
+                                                 StableDiffusionService stableDiffusionService,
+                                                 ProfilePhotoJobEvents events,
+                                                 WebhookNotifier webhookNotifier,
+                                                 ProfilePhotoVariants variants) {
+        var processor = new ProfilePhotoAsyncProcessor(jobRepository,
+                                                       new NoOpPersistenceRepository(),
+                                                       storageRepository,
+                                                       stableDiffusionService,
+                                                       events,
+                                                       webhookNotifier,
+                                                       new ClusterNode(Optional.of("test-node")),
+                                                       concurrencyLimit,
+                                                       resultCache(stableDiffusionService),
+                                                       variants,
+                                                       metrics);
+        processor.maxAttempts = 3;
+        processor.database = database;
+        return processor;
+    }
+
+    private GenerationResultCache resultCache(StableDiffusionService stableDiffusionService) {
+        return new GenerationResultCache(generationResults, stableDiffusionService, noVariants, new ObjectMapper(), registry, true, true);
+    }
+
+    private static ProfilePhoto upload(String content) throws IOException {
+        var file = Files.createTempFile("profile-photo-test", ".png");
+        Files.writeString(file, content);
+        return new ProfilePhoto(UUID.randomUUID().toString(), file.toAbsolutePath().toString(), null);
     }
 
     private static class InMemoryJobRepository implements ProfilePhotoJobRepository {
@@ -71,7 +261,7 @@ class ProfilePhotoAsyncProcessorTest {
         public ProfilePhotoJob create(String customerId, ProfilePhoto profilePhoto, String callbackUrl) {
             var id = UUID.randomUUID().toString();
             var now = Instant.now();
-            jobs.put(id, new MutableJob(id, customerId, profilePhoto, ProcessingStatus.PENDING, null, null, callbackUrl, null, now, now));
+            jobs.put(id, new MutableJob(id, customerId, profilePhoto, ProcessingStatus.PENDING, null, null, callbackUrl, null, 0, 0, null, now, now));
             return toDomain(jobs.get(id));
         }
 
@@ -81,13 +271,40 @@ class ProfilePhotoAsyncProcessorTest {
         }
 
         @Override
-        public void updateStatus(String jobId, ProcessingStatus status, String error) {
-            jobs.computeIfPresent(jobId, (id, job) -> job.withStatus(status, error));
+        public synchronized Optional<ProfilePhotoJob> transition(ProfilePhotoJob job,
+                                                                 ProcessingStatus status,
+                                                                 String originalPhotoUrl,
+                                                                 String generatedPhotoUrl,
+                                                                 Map<String, String> variants,
+                                                                 String error) {
+            var current = jobs.get(job.id());
+            if (current == null || current.version != job.version()) {
+                return Optional.empty();
+            }
+            var next = job.transition(status, originalPhotoUrl, generatedPhotoUrl, variants, error, Instant.now());
+            jobs.put(job.id(), current.with(next));
+            return Optional.of(next);
         }
 
         @Override
-        public void updateResult(String jobId, String originalPhotoUrl, String generatedPhotoUrl) {
-            jobs.computeIfPresent(jobId, (id, job) -> job.withResult(originalPhotoUrl, generatedPhotoUrl));
+        public synchronized Optional<ProfilePhotoJob> claimNext(String owner, Duration lease) {
+            return jobs.values()
+                       .stream()
+                       .filter(job -> job.status == ProcessingStatus.PENDING)
+                       .findFirst()
+                       .map(job -> jobs.computeIfPresent(job.id, (id, current) -> current.claim(owner)))
+                       .map(this::toDomain);
+        }
+
+        @Override
+        public int renewLeases(String owner, Duration lease) {
+            return 0;
+        }
+
+        @Override
+        public JobQueueStats queueStats() {
+            var pending = jobs.values().stream().filter(job -> job.status == ProcessingStatus.PENDING).toList();
+            return new JobQueueStats(pending.size(), pending.stream().map(MutableJob::createdAt).min(Instant::compareTo).orElse(null));
         }
 
         private ProfilePhotoJob toDomain(MutableJob job) {
@@ -99,6 +316,8 @@ class ProfilePhotoAsyncProcessorTest {
                                        job.generatedPhotoUrl,
                                        job.callbackUrl,
                                        job.error,
+                                       job.attempts,
+                                       job.version,
                                        job.createdAt,
                                        job.updatedAt);
         }
@@ -111,18 +330,35 @@ class ProfilePhotoAsyncProcessorTest {
                                   String generatedPhotoUrl,
                                   String callbackUrl,
                                   String error,
+                                  int attempts,
+                                  long version,
+                                  String leaseOwner,
                                   Instant createdAt,
                                   Instant updatedAt) {
-            MutableJob withStatus(ProcessingStatus status, String error) {
-                return new MutableJob(id, customerId, profilePhoto, status, originalPhotoUrl, generatedPhotoUrl, callbackUrl, error, createdAt, Instant.now());
+            MutableJob with(ProfilePhotoJob job) {
+                return new MutableJob(id, customerId, job.profilePhoto(), job.status(), job.originalPhotoUrl(), job.generatedPhotoUrl(), callbackUrl, job.error(), attempts, job.version(), leaseOwner, createdAt, job.updatedAt());
             }
 
-            MutableJob withResult(String originalPhotoUrl, String generatedPhotoUrl) {
-                return new MutableJob(id, customerId, profilePhoto, status, originalPhotoUrl, generatedPhotoUrl, callbackUrl, error, createdAt, Instant.now());
+            MutableJob claim(String owner) {
+                return new MutableJob(id, customerId, profilePhoto, ProcessingStatus.PROCESSING, originalPhotoUrl, generatedPhotoUrl, callbackUrl, error, attempts + 1, version + 1, owner, createdAt, Instant.now());
             }
         }
     }
 
+    private static class InMemoryGenerationResultRepository implements GenerationResultRepository {
+        private final Map<String, GenerationResult> results = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<GenerationResult> find(String cacheKey) {
+            return Optional.ofNullable(results.get(cacheKey));
+        }
+
+        @Override
+        public void save(String cacheKey, GenerationResult result) {
+            results.putIfAbsent(cacheKey, result);
+        }
+    }
+
     private static class NoOpPersistenceRepository implements ProfilePhotoPersistenceRepository {
         @Override
         public void save(String customerId, ProfilePhoto profilePhoto) {
@@ -131,25 +367,50 @@ class ProfilePhotoAsyncProcessorTest {
     }
 
     private static class FakeStorageRepository implements ProfilePhotoStorageRepository {
+        private final Map<String, String> variantContentTypes = new ConcurrentHashMap<>();
+
         @Override
         public Uni<String> store(String customerId, ProfilePhoto profilePhoto) {
             return Uni.createFrom().item("https://s3.example/" + customerId + "/" + profilePhoto.id());
         }
 
         @Override
-        public Uni<String> store(String customerId, ProfilePhoto profilePhoto, String base64) {
+        public Uni<String> store(String customerId, ProfilePhoto profilePhoto, Path generatedPhoto) {
             return Uni.createFrom().item("https://s3.example/" + customerId + "/" + profilePhoto.id() + "/generated");
         }
+
+        @Override
+        public Uni<String> store(String customerId, ProfilePhoto profilePhoto, String variant, Path variantPhoto, String contentType) {
+            variantContentTypes.put(variant, contentType);
+            return Uni.createFrom().item("https://s3.example/" + customerId + "/" + profilePhoto.id() + "/" + variant);
+        }
     }
 
     private static class FakeStableDiffusionService extends StableDiffusionService {
+        private final AtomicInteger generations = new AtomicInteger();
+        private final AtomicInteger preparations = new AtomicInteger();
+
+        // Normalization is off, so the text uploads reach generation as they are, but they are still hashed.
         FakeStableDiffusionService() {
-            super(null);
+            super(null, new ImagePreprocessor(new SimpleMeterRegistry(), false, 1));
         }
 
         @Override
-        public Uni<String> generate(ProfilePhoto profilePhoto) {
-            return Uni.createFrom().item("YmFzZTY0LWltYWdl");
+        public Uni<Path> prepare(ProfilePhoto profilePhoto) {
+            preparations.incrementAndGet();
+            return super.prepare(profilePhoto);
+        }
+
+        @Override
+        public Uni<Path> generate(ProfilePhoto profilePhoto, Path input) {
+            return Uni.createFrom().item(() -> {
+                generations.incrementAndGet();
+                try {
+                    return Files.createTempFile("generated-test", ".png");
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
         }
     }
 
@@ -158,13 +419,18 @@ class ProfilePhotoAsyncProcessorTest {
         private final AtomicReference<ProfilePhotoJobStatus> lastStatus = new AtomicReference<>();
 
         RecordingWebhookNotifier() {
-            super(HttpClient.newHttpClient(), new ObjectMapper());
+            super(null, null, new ObjectMapper());
+        }
+
+        @Override
+        public void enqueue(ProfilePhotoJob job) {
+            lastCallbackUrl.set(job.callbackUrl());
+            lastStatus.set(ProfilePhotoJobStatus.fromDomain(job));
         }
 
         @Override
-        public void notify(String callbackUrl, ProfilePhotoJobStatus status) {
-            lastCallbackUrl.set(callbackUrl);
-            lastStatus.set(status);
+        public void wakeUp(ProfilePhotoJob job) {
+            // nothing to dispatch in these tests
         }
     }
 }
@@ -0,0 +1,245 @@
+package com.taumaturgo.infrastructure.async;
+
+import com.sun.net.httpserver.HttpServer;
+import com.taumaturgo.domain.models.WebhookDelivery;
+import com.taumaturgo.domain.repositories.WebhookDeliveryRepository;
+import com.taumaturgo.infrastructure.cluster.ClusterNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookDispatcherTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemoryDeliveryRepository outbox = new InMemoryDeliveryRepository();
+    private final List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger status = new AtomicInteger(200);
+    private HttpServer stub;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/hook", exchange -> {
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void batchesDeliveriesToTheSameEndpoint() throws Exception {
+        var dispatcher = dispatcher(10, 4);
+        outbox.enqueue(hook(), "job-1", "{\"job\":1}");
+        outbox.enqueue(hook(), "job-2", "{\"job\":2}");
+
+        dispatcher.poll();
+
+        eventually(() -> outbox.rows.isEmpty());
+        assertEquals(List.of("[{\"job\":1},{\"job\":2}]"), bodies);
+        assertEquals(2.0, registry.get("webhooks.deliveries").tag("outcome", "delivered").counter().count());
+    }
+
+    @Test
+    void retriesWithBackoffAndGivesUpAfterMaxAttempts() throws Exception {
+        status.set(503);
+        var dispatcher = dispatcher(10, 1);
+        dispatcher.maxAttempts = 2;
+        outbox.enqueue(hook(), "job-1", "{}");
+
+        dispatcher.poll();
+        eventually(() -> outbox.rows.get(1L).attempts == 1);
+        assertTrue(outbox.rows.get(1L).nextAttemptAt.isAfter(Instant.now().plusMillis(400)));
+
+        outbox.rows.get(1L).nextAttemptAt = Instant.now();
+        dispatcher.poll();
+        // the row is marked before the counter moves, so wait on the counter
+        eventually(() -> registry.get("webhooks.deliveries").tag("outcome", "abandoned").counter().count() == 1.0);
+        assertTrue(outbox.rows.get(1L).abandoned);
+        assertEquals(2, bodies.size());
+    }
+
+    @Test
+    void handsBackDeliveriesWhileTheirHostIsAtItsLimit() throws Exception {
+        var release = new CountDownLatch(1);
+        stub.createContext("/slow", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        var dispatcher = dispatcher(4, 1);
+        var slow = "http://localhost:%d/slow".formatted(stub.getAddress().getPort());
+        outbox.enqueue(slow, "job-1", "{}");
+        outbox.enqueue(slow, "job-2", "{}");
+
+        dispatcher.poll();
+
+        assertEquals(1, outbox.rows.values().stream().filter(row -> row.leaseOwner != null).count());
+        release.countDown();
+        eventually(() -> outbox.rows.size() == 1);
+        dispatcher.poll();
+        eventually(() -> outbox.rows.isEmpty());
+        eventually(dispatcher.hosts::isEmpty);
+    }
+
+    @Test
+    void leavesTheOutcomeToTheNodeThatTookTheLeaseOver() throws Exception {
+        var release = new CountDownLatch(1);
+        stub.createContext("/slow", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        var dispatcher = dispatcher(4, 1);
+        outbox.enqueue("http://localhost:%d/slow".formatted(stub.getAddress().getPort()), "job-1", "{}");
+
+        dispatcher.poll();
+        outbox.rows.get(1L).leaseOwner = "other-node";
+        release.countDown();
+
+        eventually(() -> registry.get("webhooks.deliveries").tag("outcome", "delivered").counter().count() == 1.0);
+        assertEquals("other-node", outbox.rows.get(1L).leaseOwner);
+    }
+
+    private WebhookDispatcher dispatcher(int maxInFlight, int batchSize) {
+        var dispatcher = new WebhookDispatcher(outbox, new ClusterNode(Optional.of("test-node")), registry, HttpClient.newHttpClient(), maxInFlight);
+        dispatcher.maxPerHost = 1;
+        dispatcher.batchSize = batchSize;
+        dispatcher.requestTimeout = Duration.ofSeconds(5);
+        dispatcher.lease = Duration.ofMinutes(1);
+        dispatcher.maxAttempts = 5;
+        dispatcher.initialBackoff = Duration.ofSeconds(1);
+        dispatcher.maxBackoff = Duration.ofMinutes(1);
+        return dispatcher;
+    }
+
+    private String hook() {
+        return "http://localhost:%d/hook".formatted(stub.getAddress().getPort());
+    }
+
+    private static void eventually(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class InMemoryDeliveryRepository implements WebhookDeliveryRepository {
+        private final Map<Long, Row> rows = Collections.synchronizedMap(new TreeMap<>());
+        private long sequence;
+
+        @Override
+        public synchronized void enqueue(String callbackUrl, String jobId, String payload) {
+            var id = ++sequence;
+            rows.put(id, new Row(new WebhookDelivery(id, callbackUrl, jobId, payload, 0, Instant.now())));
+        }
+
+        @Override
+        public synchronized List<WebhookDelivery> claimDue(String owner, Duration lease, int limit) {
+            var now = Instant.now();
+            return rows.values()
+                       .stream()
+                       .filter(row -> !row.abandoned && row.leaseOwner == null && !row.nextAttemptAt.isAfter(now))
+                       .limit(limit)
+                       .peek(row -> row.leaseOwner = owner)
+                       .map(Row::toDomain)
+                       .toList();
+        }
+
+        @Override
+        public synchronized void delivered(String owner, List<Long> ids) {
+            ids.stream().filter(id -> leasedBy(owner, id)).forEach(rows::remove);
+        }
+
+        @Override
+        public synchronized void retry(String owner, long id, Instant nextAttemptAt, String error) {
+            if (!leasedBy(owner, id)) {
+                return;
+            }
+            var row = rows.get(id);
+            row.attempts++;
+            row.nextAttemptAt = nextAttemptAt;
+            row.leaseOwner = null;
+        }
+
+        @Override
+        public synchronized void release(String owner, List<Long> ids) {
+            ids.stream().filter(id -> leasedBy(owner, id)).forEach(id -> rows.get(id).leaseOwner = null);
+        }
+
+        @Override
+        public synchronized void abandon(String owner, List<Long> ids, String error) {
+            ids.stream().filter(id -> leasedBy(owner, id)).forEach(id -> {
+                var row = rows.get(id);
+                row.attempts++;
+                row.abandoned = true;
+                row.leaseOwner = null;
+            });
+        }
+
+        @Override
+        public synchronized long pending() {
+            return rows.values().stream().filter(row -> !row.abandoned).count();
+        }
+
+        @Override
+        public int deleteAbandonedBefore(Instant instant) {
+            return 0;
+        }
+
+        private boolean leasedBy(String owner, long id) {
+            var row = rows.get(id);
+            return row != null && owner.equals(row.leaseOwner);
+        }
+    }
+
+    private static class Row {
+        private final WebhookDelivery delivery;
+        private volatile int attempts;
+        private volatile Instant nextAttemptAt = Instant.now();
+        private volatile String leaseOwner;
+        private volatile boolean abandoned;
+
+        Row(WebhookDelivery delivery) {
+            this.delivery = delivery;
+        }
+
+        WebhookDelivery toDomain() {
+            return new WebhookDelivery(delivery.id(), delivery.callbackUrl(), delivery.jobId(), delivery.payload(), attempts, delivery.createdAt());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.taumaturgo.infrastructure.cluster;
+
+import com.taumaturgo.application.dto.ProfilePhotoJobStatus;
+import com.taumaturgo.application.events.ProfilePhotoJobEvents;
+import com.taumaturgo.domain.models.ProcessingStatus;
+import com.taumaturgo.domain.models.ProfilePhotoJobEvent;
+import com.taumaturgo.domain.repositories.ProfilePhotoJobEventRepository;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterEventRelayTest {
+
+    @Test
+    void relaysOnlyEventsFromOtherNodes() {
+        var outbox = new InMemoryEventRepository();
+        var events = new ProfilePhotoJobEvents();
+        var relay = relay(outbox, events, Duration.ofMinutes(1));
+        var subscriber = events.streamByCustomer("customer-1").subscribe().withSubscriber(AssertSubscriber.create(10));
+
+        outbox.append(1, "node-a", "job-1");
+        outbox.append(2, "node-b", "job-2");
+        relay.poll();
+
+        assertEquals(List.of("job-2"), subscriber.getItems().stream().map(ProfilePhotoJobStatus::jobId).toList());
+        assertEquals(2, relay.cursor());
+    }
+
+    @Test
+    void deliversAGapThatCommitsLateWithoutRereadingTheRowsAboveIt() {
+        var outbox = new InMemoryEventRepository();
+        var events = new ProfilePhotoJobEvents();
+        var relay = relay(outbox, events, Duration.ofMinutes(1));
+        var subscriber = events.streamByCustomer("customer-1").subscribe().withSubscriber(AssertSubscriber.create(10));
+
+        outbox.append(1, "node-b", "job-1");
+        outbox.append(3, "node-b", "job-3");
+        relay.poll();
+        assertEquals(3, relay.cursor());
+
+        outbox.append(2, "node-b", "job-2");
+        relay.poll();
+        relay.poll();
+
+        assertEquals(List.of("job-1", "job-3", "job-2"), subscriber.getItems().stream().map(ProfilePhotoJobStatus::jobId).toList());
+        assertEquals(3, outbox.rowsRead, "every row is read once");
+        assertTrue(relay.missing().isEmpty());
+    }
+
+    @Test
+    void rechecksASkippedGapUntilRetention() {
+        var outbox = new InMemoryEventRepository();
+        var events = new ProfilePhotoJobEvents();
+        var relay = relay(outbox, events, Duration.ofSeconds(5));
+        var subscriber = events.streamByCustomer("customer-1").subscribe().withSubscriber(AssertSubscriber.create(10));
+        var start = Instant.now();
+
+        outbox.append(1, "node-b", "job-1");
+        outbox.append(3, "node-b", "job-3");
+        outbox.append(5, "node-b", "job-5");
+        relay.poll(start);
+
+        outbox.append(2, "node-b", "job-2");
+        relay.poll(start.plusSeconds(10));
+        assertEquals(List.of("job-1", "job-3", "job-5"), subscriber.getItems().stream().map(ProfilePhotoJobStatus::jobId).toList());
+
+        relay.recheckSkipped(start.plusSeconds(60));
+        assertEquals("job-2", subscriber.getItems().get(3).jobId());
+        assertEquals(Set.of(4L), relay.missing().keySet());
+
+        relay.recheckSkipped(start.plus(Duration.ofHours(2)));
+        assertTrue(relay.missing().isEmpty(), "a gap older than retention was purged, if it ever existed");
+    }
+
+    private static ClusterEventRelay relay(ProfilePhotoJobEventRepository outbox, ProfilePhotoJobEvents events, Duration gapTimeout) {
+        var relay = new ClusterEventRelay(outbox, events, new ClusterNode(Optional.of("node-a")));
+        relay.batchSize = 100;
+        relay.gapTimeout = gapTimeout;
+        relay.retention = Duration.ofHours(1);
+        return relay;
+    }
+
+    private static class InMemoryEventRepository implements ProfilePhotoJobEventRepository {
+        private final List<ProfilePhotoJobEvent> events = new ArrayList<>();
+        private int rowsRead;
+
+        void append(long sequence, String originNode, String jobId) {
+            var now = Instant.now();
+            events.add(new ProfilePhotoJobEvent(sequence, originNode, jobId, "customer-1", ProcessingStatus.PROCESSING,
+                                                null, null, null, null, now, now));
+            events.sort(Comparator.comparingLong(ProfilePhotoJobEvent::sequence));
+        }
+
+        @Override
+        public List<ProfilePhotoJobEvent> findAfter(long sequence, int limit) {
+            return read(events.stream().filter(event -> event.sequence() > sequence).limit(limit).toList());
+        }
+
+        @Override
+        public List<ProfilePhotoJobEvent> findBySequences(Collection<Long> sequences) {
+            return read(events.stream().filter(event -> sequences.contains(event.sequence())).toList());
+        }
+
+        private List<ProfilePhotoJobEvent> read(List<ProfilePhotoJobEvent> rows) {
+            rowsRead += rows.size();
+            return rows;
+        }
+
+        @Override
+        public long lastSequence() {
+            return events.isEmpty() ? 0 : events.get(events.size() - 1).sequence();
+        }
+
+        @Override
+        public int deleteOlderThan(Instant instant) {
+            return 0;
+        }
+    }
+}
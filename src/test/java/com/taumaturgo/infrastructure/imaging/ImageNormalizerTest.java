@@ -0,0 +1,125 @@
+package com.taumaturgo.infrastructure.imaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageNormalizerTest {
+    private final List<Path> files = new ArrayList<>();
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        for (var file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void cropsTheCentreAndScalesToTheOutputSize() throws IOException {
+        // a green square between two red bands: only the square survives a centre crop to 1:1
+        var image = new BufferedImage(3000, 1000, BufferedImage.TYPE_INT_RGB);
+        fill(image, 0, 3000, Color.RED);
+        fill(image, 1000, 2000, Color.GREEN);
+        var source = file(".png");
+        ImageIO.write(image, "png", source.toFile());
+
+        var target = file(".jpg");
+        ImageNormalizer.normalize(source, target, 64, 64);
+
+        var normalized = ImageIO.read(target.toFile());
+        assertEquals(64, normalized.getWidth());
+        assertEquals(64, normalized.getHeight());
+        assertTrue(isGreen(normalized.getRGB(2, 32)) && isGreen(normalized.getRGB(61, 32)));
+    }
+
+    @Test
+    void rotatesUprightFromTheExifOrientation() throws IOException {
+        // stored sideways: red on the left, blue on the right, tagged "rotate 90° clockwise to display"
+        var image = new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB);
+        fill(image, 0, 100, Color.RED);
+        fill(image, 100, 200, Color.BLUE);
+        var source = file(".jpg");
+        Files.write(source, withOrientation(jpeg(image), 6));
+
+        var target = file(".jpg");
+        ImageNormalizer.normalize(source, target, 32, 32);
+
+        var normalized = ImageIO.read(target.toFile());
+        assertEquals(6, ImageNormalizer.orientation(source));
+        assertTrue(isRed(normalized.getRGB(16, 2)), "left edge should end up on top");
+        assertTrue(isBlue(normalized.getRGB(16, 29)), "right edge should end up at the bottom");
+    }
+
+    private static void fill(BufferedImage image, int fromX, int toX, Color color) {
+        var graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(fromX, 0, toX - fromX, image.getHeight());
+        graphics.dispose();
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        var output = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", output);
+        return output.toByteArray();
+    }
+
+    // Inserts a big-endian Exif APP1 segment with a single orientation entry right after SOI.
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        var tiff = ByteBuffer.allocate(26)
+                             .put(new byte[]{'M', 'M', 0, 42})
+                             .putInt(8)
+                             .putShort((short) 1)
+                             .putShort((short) 0x0112)
+                             .putShort((short) 3)
+                             .putInt(1)
+                             .putShort((short) orientation)
+                             .putShort((short) 0)
+                             .putInt(0)
+                             .array();
+        var app1 = ByteBuffer.allocate(4 + 6 + tiff.length)
+                             .putShort((short) 0xFFE1)
+                             .putShort((short) (2 + 6 + tiff.length))
+                             .put("Exif\0\0".getBytes())
+                             .put(tiff)
+                             .array();
+        return ByteBuffer.allocate(jpeg.length + app1.length)
+                         .put(jpeg, 0, 2)
+                         .put(app1)
+                         .put(jpeg, 2, jpeg.length - 2)
+                         .array();
+    }
+
+    private static boolean isRed(int rgb) {
+        var color = new Color(rgb);
+        return color.getRed() > 200 && color.getBlue() < 60;
+    }
+
+    private static boolean isGreen(int rgb) {
+        var color = new Color(rgb);
+        return color.getGreen() > 200 && color.getRed() < 60;
+    }
+
+    private static boolean isBlue(int rgb) {
+        var color = new Color(rgb);
+        return color.getBlue() > 200 && color.getRed() < 60;
+    }
+
+    private Path file(String suffix) throws IOException {
+        var file = Files.createTempFile("normalizer", suffix);
+        files.add(file);
+        return file;
+    }
+}
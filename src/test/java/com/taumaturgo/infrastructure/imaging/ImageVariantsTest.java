@@ -0,0 +1,53 @@
+package com.taumaturgo.infrastructure.imaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImageVariantsTest {
+    private final List<Path> files = new ArrayList<>();
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        for (var file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void fitsTheGeneratedPhotoInsideTheVariantSize() throws IOException {
+        var source = file(".png");
+        ImageIO.write(new BufferedImage(768, 512, BufferedImage.TYPE_INT_ARGB), "png", source.toFile());
+
+        var target = file(".jpeg");
+        var variant = ImageVariant.parse("jpeg-64:jpeg:64");
+        ImageVariants.render(source, target, variant);
+
+        var rendered = ImageIO.read(target.toFile());
+        assertEquals("image/jpeg", variant.contentType());
+        assertEquals(64, rendered.getWidth());
+        assertEquals(43, rendered.getHeight());
+    }
+
+    @Test
+    void rejectsFormatsWithoutAnImageIoWriter() {
+        assertThrows(IllegalArgumentException.class, () -> ImageVariant.parse("avif-64:avif:64"));
+        assertThrows(IllegalArgumentException.class, () -> ImageVariant.parse("jpeg-64:jpeg"));
+    }
+
+    private Path file(String suffix) throws IOException {
+        var file = Files.createTempFile("variants", suffix);
+        files.add(file);
+        return file;
+    }
+}
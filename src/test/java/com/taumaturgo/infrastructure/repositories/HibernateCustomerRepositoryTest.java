@@ -0,0 +1,65 @@
+package com.taumaturgo.infrastructure.repositories;
+
+import com.taumaturgo.domain.models.Customer;
+import com.taumaturgo.domain.models.ProfilePhoto;
+import com.taumaturgo.domain.repositories.CustomerQuery;
+import com.taumaturgo.infrastructure.repositories.entities.CustomerProfilePhotoRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HibernateCustomerRepositoryTest {
+
+    @Test
+    void groupsSortedRowsIntoCustomersInOnePass() {
+        var closed = new AtomicBoolean();
+        var rows = Stream.of(row("customer-1", "photo-1"),
+                             row("customer-1", "photo-2"),
+                             row("customer-2", "photo-1"),
+                             row("customer-3", "photo-1"),
+                             row("customer-3", "photo-2"))
+                         .onClose(() -> closed.set(true));
+
+        List<Customer> customers;
+        try (var grouped = HibernateCustomerRepository.groupByCustomer(rows)) {
+            customers = grouped.toList();
+        }
+
+        assertEquals(List.of("customer-1", "customer-2", "customer-3"), customers.stream().map(Customer::id).toList());
+        assertEquals(List.of("photo-1", "photo-2"), customers.get(0).profilePhotos().stream().map(ProfilePhoto::id).toList());
+        assertEquals(1, customers.get(1).profilePhotos().size());
+        assertTrue(closed.get(), "underlying result stream should be closed");
+    }
+
+    @Test
+    void extraRowOnlyDecidesTheNextCursor() {
+        var rows = List.of(row("customer-1", "photo-1"),
+                           row("customer-1", "photo-2"),
+                           row("customer-2", "photo-1"));
+
+        var page = HibernateCustomerRepository.page(rows, 2);
+
+        assertEquals(1, page.customers().size());
+        assertEquals(2, page.customers().get(0).profilePhotos().size());
+        assertEquals(Optional.of(new CustomerQuery.Cursor("customer-1", "photo-2")), page.next());
+        assertEquals(Optional.empty(), HibernateCustomerRepository.page(rows, 3).next());
+    }
+
+    @Test
+    void cursorSurvivesEncoding() {
+        var cursor = new CustomerQuery.Cursor("customer/1", "06043448-f8be-11ed-be56-0242ac120002");
+
+        assertEquals(cursor, CustomerQuery.Cursor.decode(cursor.encode()));
+    }
+
+    private static CustomerProfilePhotoRow row(String customerId, String photoId) {
+        return new CustomerProfilePhotoRow(customerId, photoId, "original", "generated", Map.of());
+    }
+}
@@ -0,0 +1,106 @@
+package com.taumaturgo.infrastructure.repositories;
+
+import com.taumaturgo.infrastructure.async.CustomerTiers;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.taumaturgo.infrastructure.async.CustomerTiers.VIRTUAL_JOB_COST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HibernateProfilePhotoJobRepositoryTest {
+
+    @Test
+    void anotherCustomersJobIsClaimedBetweenABulkUploadersJobs() {
+        var queue = new FairQueue(new CustomerTiers(List.of("standard:1"), "standard", Optional.empty()));
+        for (int i = 0; i < 4; i++) {
+            queue.create("bulk");
+        }
+        queue.create("single");
+
+        assertEquals(List.of("bulk", "single", "bulk", "bulk", "bulk"), queue.claimAll());
+    }
+
+    @Test
+    void priorityCustomerAdvancesItsClockAtOneOverItsWeight() {
+        var queue = new FairQueue(new CustomerTiers(List.of("standard:1", "priority:4"), "standard", Optional.of(List.of("acme:priority"))));
+        var standard = new ArrayList<Long>();
+        var priority = new ArrayList<Long>();
+        for (int i = 0; i < 3; i++) {
+            standard.add(queue.create("someone-else"));
+        }
+        for (int i = 0; i < 8; i++) {
+            priority.add(queue.create("acme"));
+        }
+
+        assertEquals(List.of(0L, VIRTUAL_JOB_COST, 2 * VIRTUAL_JOB_COST), standard);
+        for (int i = 0; i < priority.size(); i++) {
+            assertEquals(i * VIRTUAL_JOB_COST / 4, priority.get(i));
+        }
+        assertEquals(List.of("someone-else", "acme", "acme", "acme", "acme",
+                             "someone-else", "acme", "acme", "acme", "acme",
+                             "someone-else"),
+                     queue.claimAll());
+    }
+
+    @Test
+    void idleCustomerComesBackAtTheCurrentVirtualTime() {
+        var queue = new FairQueue(new CustomerTiers(List.of("standard:1"), "standard", Optional.empty()));
+        queue.create("returning");
+        queue.claimAll();
+        for (int i = 0; i < 3; i++) {
+            queue.create("busy");
+        }
+        queue.claim();
+        queue.claim();
+
+        assertEquals(3 * VIRTUAL_JOB_COST, queue.create("returning"), "no credit for the time it was idle");
+        assertEquals(List.of("busy", "returning"), queue.claimAll());
+    }
+
+    // The repository's create and claim over in-memory profile_photo_jobs and customer_schedules tables.
+    private static final class FairQueue {
+        private final CustomerTiers tiers;
+        private final Map<String, Long> finishes = new HashMap<>();
+        private final List<Job> pending = new ArrayList<>();
+        private long createdAt;
+
+        FairQueue(CustomerTiers tiers) {
+            this.tiers = tiers;
+        }
+
+        long create(String customerId) {
+            var head = pending.stream().map(Job::virtualStart).min(Long::compare).orElse(null);
+            var latest = finishes.values().stream().max(Long::compare).orElse(null);
+            var now = HibernateProfilePhotoJobRepository.virtualNow(head, head != null ? null : latest);
+            var start = HibernateProfilePhotoJobRepository.virtualStart(finishes.getOrDefault(customerId, 0L), now);
+            finishes.put(customerId, start + tiers.virtualCost(customerId));
+            pending.add(new Job(customerId, start, createdAt++));
+            return start;
+        }
+
+        String claim() {
+            var next = pending.stream()
+                              .min(Comparator.comparingLong(Job::virtualStart).thenComparingLong(Job::createdAt))
+                              .orElseThrow();
+            pending.remove(next);
+            return next.customerId();
+        }
+
+        List<String> claimAll() {
+            var claimed = new ArrayList<String>();
+            while (!pending.isEmpty()) {
+                claimed.add(claim());
+            }
+            return claimed;
+        }
+    }
+
+    private record Job(String customerId, long virtualStart, long createdAt) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.taumaturgo.infrastructure.rest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.taumaturgo.infrastructure.async.ExecutionMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class HttpStableDiffusionTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicReference<JsonNode> received = new AtomicReference<>();
+    private HttpServer server;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/sdapi/v1/img2img", exchange -> {
+            received.set(mapper.readTree(exchange.getRequestBody()));
+            var body = "{\"images\":[\"%s\"],\"parameters\":{\"steps\":20},\"info\":\"{}\"}".formatted(Base64.getEncoder().encodeToString("generated".getBytes(StandardCharsets.UTF_8)))
+                                              .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void img2imgStreamsInitImageOnceAndParsesResponse() throws Exception {
+        var image = new byte[3 * 1024 * 1024 + 1];
+        new Random(42).nextBytes(image);
+        var file = Files.createTempFile("sd-request", ".png");
+        Files.write(file, image);
+
+        var client = new HttpStableDiffusion(HttpClient.newHttpClient(),
+                                             mapper,
+                                             URI.create("http://127.0.0.1:" + server.getAddress().getPort()),
+                                             Duration.ofSeconds(10),
+                                             ExecutionMode.PLATFORM.blockingExecutor());
+
+        var response = client.img2img(new StableDiffusion.Request(file)).await().atMost(Duration.ofSeconds(10));
+
+        var generated = response.images().get(0);
+        assertEquals("generated", Files.readString(generated));
+        assertEquals(1, received.get().get("init_images").size());
+        assertArrayEquals(image, Base64.getDecoder().decode(received.get().get("init_images").get(0).asText()));
+        assertEquals("modern disney style", received.get().get("prompt").asText());
+        assertFalse(received.get().at("/alwayson_scripts/controlnet/args/0").has("input_image"));
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(generated);
+    }
+}
@@ -0,0 +1,158 @@
+package com.taumaturgo.infrastructure.rest.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.taumaturgo.infrastructure.async.ExecutionMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StableDiffusionPoolTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<HttpServer> servers = new ArrayList<>();
+    private Path initImage;
+
+    @BeforeEach
+    void createInitImage() throws IOException {
+        initImage = Files.createTempFile("sd-pool", ".png");
+        Files.writeString(initImage, "original");
+    }
+
+    @AfterEach
+    void stopStubs() throws IOException {
+        servers.forEach(server -> server.stop(0));
+        Files.deleteIfExists(initImage);
+    }
+
+    @Test
+    void dispatchesToTheLeastLoadedBackendAndQueuesBeyondTheCap() throws Exception {
+        var release = new CountDownLatch(1);
+        var first = new Stub(200, release);
+        var second = new Stub(200, release);
+        var pool = pool(1, 3, first, second);
+
+        var calls = List.of(pool.img2img(request()).subscribeAsCompletionStage(),
+                            pool.img2img(request()).subscribeAsCompletionStage(),
+                            pool.img2img(request()).subscribeAsCompletionStage());
+
+        await(() -> first.hits.get() == 1 && second.hits.get() == 1);
+        assertEquals(1, pool.waitingCount());
+        assertEquals(1.0, registry.get("stable_diffusion.in_flight").tag("backend", first.authority()).gauge().value());
+
+        release.countDown();
+        for (var call : calls) {
+            call.toCompletableFuture().get().images().forEach(StableDiffusionPoolTest::delete);
+        }
+
+        assertEquals(3, first.hits.get() + second.hits.get());
+        assertEquals(0, pool.waitingCount());
+    }
+
+    @Test
+    void ejectsABackendAfterConsecutiveFailures() throws Exception {
+        var failing = new Stub(500, null);
+        var healthy = new Stub(200, null);
+        var pool = pool(1, 2, failing, healthy);
+
+        for (int i = 0; i < 6; i++) {
+            try {
+                pool.img2img(request()).await().atMost(Duration.ofSeconds(10)).images().forEach(StableDiffusionPoolTest::delete);
+            } catch (IllegalStateException expected) {
+                // the failing stub answers 500
+            }
+        }
+
+        assertEquals(2, failing.hits.get());
+        assertEquals(4, healthy.hits.get());
+        assertEquals(1.0, registry.get("stable_diffusion.ejected").tag("backend", failing.authority()).gauge().value());
+        assertEquals(2, registry.get("stable_diffusion.requests").tag("backend", failing.authority()).tag("outcome", "failure").timer().count());
+    }
+
+    private StableDiffusionPool pool(int maxConcurrency, int ejectAfterFailures, Stub... stubs) {
+        var client = HttpClient.newHttpClient();
+        return new StableDiffusionPool(List.of(stubs).stream().map(Stub::uri).toList(),
+                                       uri -> new HttpStableDiffusion(client, mapper, uri, Duration.ofSeconds(10), ExecutionMode.PLATFORM.blockingExecutor()),
+                                       registry,
+                                       maxConcurrency,
+                                       ejectAfterFailures,
+                                       Duration.ofMinutes(1));
+    }
+
+    private StableDiffusion.Request request() {
+        return new StableDiffusion.Request(initImage);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        var deadline = Instant.now().plusSeconds(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(Instant.now().isBefore(deadline), "condition not met in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // temp file cleanup
+        }
+    }
+
+    private class Stub {
+        private final AtomicInteger hits = new AtomicInteger();
+        private final HttpServer server;
+
+        Stub(int status, CountDownLatch release) throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/sdapi/v1/img2img", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                hits.incrementAndGet();
+                try {
+                    if (release != null) {
+                        release.await();
+                    }
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                var body = "{\"images\":[\"%s\"]}".formatted(Base64.getEncoder().encodeToString("generated".getBytes(StandardCharsets.UTF_8)))
+                                                  .getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            servers.add(server);
+        }
+
+        URI uri() {
+            return URI.create("http://" + authority());
+        }
+
+        String authority() {
+            return "127.0.0.1:" + server.getAddress().getPort();
+        }
+    }
+}